@@ -6,6 +6,7 @@ import org.elasticsearch.action.ActionResponse;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public class ActionRequestUtil {
     /**
@@ -34,15 +35,46 @@ public class ActionRequestUtil {
     }
 
     /**
-     * Wrap an {@link ActionRequestBuilder} in a {@link CompletableFuture}.
+     * Wrap an {@link ActionRequestBuilder} in a {@link CompletableFuture} that completes on the given executor.
+     * The request is submitted with a listener, so no thread is blocked while waiting for the response. Only the
+     * completion is handed off to the executor, which keeps any continuations off of the transport threads.
      *
      * @param reqBuilder The request builder.
-     * @param executor   The executor to supply async context.
+     * @param executor   The executor to run the continuations of the future.
      * @param <T>        The response type.
      * @return A completable future that resolves with the response.
      * @see <a href="https://mincong.io/2020/07/26/es-client-completablefuture/"></a>
      */
     public static <T extends ActionResponse> CompletableFuture<T> toCompletableFuture(ActionRequestBuilder<?, T> reqBuilder, Executor executor) {
-        return CompletableFuture.supplyAsync(reqBuilder::get, executor);
+        CompletableFuture<T> fut = new CompletableFuture<>();
+        reqBuilder.execute(ActionListener.wrap(
+            (res) -> completeOn(executor, fut, res, null),
+            (ex) -> completeOn(executor, fut, null, ex)
+        ));
+        return fut;
+    }
+
+    /**
+     * Complete a future from a task run on the executor. If the executor rejects the task, the future is completed
+     * exceptionally with the rejection on the calling thread instead.
+     *
+     * @param executor The executor to complete the future on.
+     * @param fut      The future to complete.
+     * @param res      The result, if there was no error.
+     * @param ex       The error, or null.
+     * @param <T>      The result type.
+     */
+    private static <T> void completeOn(Executor executor, CompletableFuture<T> fut, T res, Exception ex) {
+        try {
+            executor.execute(() -> {
+                if (ex == null) {
+                    fut.complete(res);
+                } else {
+                    fut.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException rejected) {
+            fut.completeExceptionally(rejected);
+        }
     }
 }
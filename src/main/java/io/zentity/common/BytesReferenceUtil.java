@@ -0,0 +1,49 @@
+package io.zentity.common;
+
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class BytesReferenceUtil {
+
+    private static final byte NEWLINE = '\n';
+
+    /**
+     * Iterate the lines of newline-delimited content without copying or decoding it. Each line is a slice of the
+     * content, so a line is only decoded when the caller reads it. Like {@link String#split}, trailing empty lines
+     * are dropped, which allows the content to end with a newline.
+     *
+     * @param bytes The content.
+     * @return An iterator of the lines, excluding their newline characters.
+     */
+    public static Iterator<BytesReference> lines(final BytesReference bytes) {
+        int end = bytes.length();
+        while (end > 0 && bytes.get(end - 1) == NEWLINE) {
+            end--;
+        }
+        final int length = end;
+        return new Iterator<>() {
+            private int from = 0;
+
+            @Override
+            public boolean hasNext() {
+                return from < length;
+            }
+
+            @Override
+            public BytesReference next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int to = bytes.indexOf(NEWLINE, from);
+                if (to < 0 || to > length) {
+                    to = length;
+                }
+                BytesReference line = bytes.slice(from, to - from);
+                from = to + 1;
+                return line;
+            }
+        };
+    }
+}
@@ -3,7 +3,6 @@ package io.zentity.common;
 import io.zentity.common.FunctionalUtil.Recursable;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -11,12 +10,10 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class CompletableFutureUtil {
@@ -171,98 +168,16 @@ public class CompletableFutureUtil {
             );
     }
 
-    @SuppressWarnings("unchecked")
-    static <T> CompletableFuture<List<T>> runParallelInChains(List<Supplier<CompletableFuture<T>>> suppliers, int parallelism) {
-        final int size = suppliers.size();
-        // Hold on to all supplied futures so that results can be ordered at the end
-        CompletableFuture<T>[] futures = new CompletableFuture[size];
-
-        final AtomicInteger currentIdx = new AtomicInteger(0);
-
-        final CompletableFuture<Void> FINISHED = CompletableFuture.completedFuture(null);
-
-        final Supplier<CompletableFuture<?>> nextFutureSupplier = () -> {
-            int nextIdx = currentIdx.getAndIncrement();
-
-            if (nextIdx >= size) {
-                // signal that there are no more futures to supply
-                return FINISHED;
-            }
-
-            CompletableFuture<T> nextFuture = suppliers.get(nextIdx).get();
-            futures[nextIdx] = nextFuture;
-            return nextFuture;
-        };
-
-        // recursively get the next future to run immediately after the last future finishes
-        final Recursable<CompletableFuture<?>, CompletableFuture<?>> futureRunner = (fut, f) -> {
-            if (fut == FINISHED) {
-                return FINISHED;
-            }
-            return fut.thenCompose((ignored) -> f.apply(nextFutureSupplier.get()));
-        };
-
-        // "parallelism" number of "channels" for running as many at the same time as possible
-        List<CompletableFuture<?>> channels = IntStream.range(0, parallelism)
-            .mapToObj(i -> futureRunner.apply(CompletableFuture.completedFuture(null)))
-            .collect(Collectors.toList());
-
-        return allOfIgnored(channels).thenApply((ignored) -> joinAllOf(Arrays.stream(futures)));
-    }
-
-    static <T> CompletableFuture<List<T>> runParallelInPartitions(List<Supplier<CompletableFuture<T>>> suppliers, int parallelism) {
-        Collection<List<Supplier<CompletableFuture<T>>>> partitions = CollectionUtil.partition(suppliers, parallelism);
-
-        return partitions
-            .stream()
-            .reduce(
-                CompletableFuture.completedFuture(new ArrayList<>()),
-                // accumulator
-                (allFut, nextBatch) -> allFut
-                    .thenCompose(
-                        (allItems) -> runSeries(nextBatch).thenApply((item) -> {
-                            allItems.addAll(item);
-                            return allItems;
-                        })
-                    ),
-                // combiner
-                (fut1, fut2) -> fut1.thenCombine(fut2, (l1, l2) -> {
-                    l1.addAll(l2);
-                    return l1;
-                })
-            );
-    }
-
     /**
-     * Run a list of async operations one after the other.
-     *
-     * <p>
-     *     NOTE: The current implementation recursively chains futures using {@link CompletableFuture#thenCompose}.
-     *     Running long lists of futures will cause a StackOverflow exception, as the future chains
-     *     will grow too long. To mitigate this for now, lists longer than 1,000 will be partitioned evenly
-     *     and each partition will be run in parallel which is less efficient,
-     *     especially when tasks widely vary in execution time. A nice optimization would be
-     *     a non-recursive implementation, likely involving another class to manage execution and "chaining".
+     * Run a list of async operations with a max number of them running at one time.
      *
      * @param suppliers A list of suppliers that kick off async work.
      * @param parallelism The max async tasks to run at one time.
      * @param <T> The result type of a single async task.
      * @return A future with the results of all of them.
+     * @see ParallelScheduler
      */
     public static <T> CompletableFuture<List<T>> runParallel(List<Supplier<CompletableFuture<T>>> suppliers, int parallelism) {
-        if (parallelism < 1) {
-            throw new IllegalArgumentException("Cannot have parallelism less than 1");
-        }
-
-        if (parallelism == 1) {
-            return runSeries(suppliers);
-        }
-
-        if (suppliers.size() < 1000) {
-            return runParallelInChains(suppliers, parallelism);
-        }
-
-        // otherwise, just partition and run each partition in series
-        return runParallelInPartitions(suppliers, parallelism);
+        return new ParallelScheduler(parallelism).run(suppliers);
     }
 }
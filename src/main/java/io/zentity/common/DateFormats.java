@@ -0,0 +1,169 @@
+package io.zentity.common;
+
+import org.elasticsearch.common.time.DateFormatter;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A thread-safe cache of the parsers of the "format" params of "date" attributes, which follow the syntax of
+ * {@link SimpleDateFormat}. A {@link SimpleDateFormat} can't be shared between threads and is expensive to build,
+ * whereas a {@link DateTimeFormatter} is immutable, so each format is compiled once as a {@link DateTimeFormatter} if
+ * its pattern means the same thing in both syntaxes. Other formats are compiled once as a {@link SimpleDateFormat},
+ * which is cloned for each parse.
+ */
+public class DateFormats {
+
+    // Formats can come from requests, so the cache is cleared rather than allowed to grow without a limit.
+    private static final int MAX_SIZE = 1000;
+    private static final Map<String, Predicate<String>> PARSERS = new ConcurrentHashMap<>();
+
+    /**
+     * Check if a "date" format formats dates the same way as a pattern of the java.time formatters of Elasticsearch.
+     * Those formatters format the "docvalue_fields" of a search, and parse the formats that this class compiles as a
+     * {@link DateTimeFormatter}. The pattern letters mostly agree, except for "u" (day of week, not year), "F", "z"
+     * (which formats UTC as "UTC", not "Z"), and fractions of a second other than "SSS", which
+     * {@link SimpleDateFormat} reads as a number of milliseconds. Some letters also disagree on long runs: five or more
+     * "M", "L" or "E" are full names in {@link SimpleDateFormat} but narrow names in java.time, four or more "G" are
+     * short names in {@link SimpleDateFormat}, and four or more "Z" are "+0000" in {@link SimpleDateFormat} but "GMT"
+     * in java.time.
+     * Elasticsearch also reads "||" as a separator of formats and reserves brackets and braces.
+     *
+     * @param format The format.
+     * @return Whether the format can be given to "docvalue_fields".
+     */
+    public static boolean isDocValueDateFormat(String format) {
+        if (format.contains("||")) {
+            return false;
+        }
+        boolean quoted = false;
+        char[] chars = format.toCharArray();
+        int i = 0;
+        while (i < chars.length) {
+            char c = chars[i];
+            if (c == '\'' || quoted) {
+                quoted = quoted != (c == '\'');
+                i++;
+                continue;
+            }
+            int count = 1;
+            while (i + count < chars.length && chars[i + count] == c) {
+                count++;
+            }
+            i += count;
+            if (!isDocValuePatternLetter(c, count)) {
+                return false;
+            }
+        }
+        try {
+            DateFormatter.forPattern(format);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if a run of an unquoted character of a format means the same thing in both syntaxes.
+     */
+    private static boolean isDocValuePatternLetter(char c, int count) {
+        switch (c) {
+            case 'u':
+            case 'z':
+            case 'F':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+            case '#':
+                return false;
+            case 'S':
+                return count == 3;
+            case 'M':
+            case 'L':
+            case 'E':
+                return count < 5;
+            case 'G':
+            case 'Z':
+                return count < 4;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Get the parser of a format, which checks if a value is a date in the format.
+     *
+     * @param format The format.
+     * @return The parser.
+     * @throws IllegalArgumentException If the format is not a valid pattern.
+     */
+    private static Predicate<String> parser(String format) {
+        Predicate<String> parser = PARSERS.get(format);
+        if (parser == null) {
+            parser = isDocValueDateFormat(format) ? formatterParser(format) : simpleDateFormatParser(format);
+            if (PARSERS.size() >= MAX_SIZE) {
+                PARSERS.clear();
+            }
+            PARSERS.put(format, parser);
+        }
+        return parser;
+    }
+
+    private static Predicate<String> formatterParser(String format) {
+        DateTimeFormatter formatter = new DateTimeFormatterBuilder()
+            .appendPattern(format)
+            // Resolve "yyyy" as a year of the current era, like SimpleDateFormat does, so that strict resolving can
+            // reject dates that don't exist.
+            .parseDefaulting(ChronoField.ERA, 1)
+            .toFormatter(Locale.ROOT)
+            .withResolverStyle(ResolverStyle.STRICT);
+        return (value) -> {
+            try {
+                formatter.parse(value);
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<String> simpleDateFormatParser(String format) {
+        // Use the same locale and time zone as the script fields that format these dates. Local times that are skipped
+        // by daylight saving time in the default time zone are still dates in UTC.
+        SimpleDateFormat prototype = new SimpleDateFormat(format);
+        prototype.setLenient(false);
+        prototype.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return (value) -> {
+            SimpleDateFormat formatter = (SimpleDateFormat) prototype.clone();
+            ParsePosition position = new ParsePosition(0);
+            formatter.parse(value, position);
+            return position.getErrorIndex() < 0 && position.getIndex() == value.length();
+        };
+    }
+
+    /**
+     * Check if a value is a date in a format. The whole value must match the format, and the date must exist.
+     *
+     * @param value  The value.
+     * @param format The format.
+     * @return Whether the value is a date in the format. False if the format is not a valid pattern.
+     */
+    public static boolean isDate(String value, String format) {
+        try {
+            return parser(format).test(value);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
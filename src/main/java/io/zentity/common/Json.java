@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import com.fasterxml.jackson.databind.node.NumericNode;
 
 import java.io.IOException;
@@ -68,4 +69,50 @@ public class Json {
     public static NumericNode parseNumberAsNode(String num) throws IOException {
         return Json.MAPPER.readValue(num, NumericNode.class);
     }
+
+    /**
+     * Get the node at a path of field names. Like {@link JsonNode#at(com.fasterxml.jackson.core.JsonPointer)},
+     * numeric path segments index into arrays, but the path doesn't need to be compiled or escaped.
+     *
+     * @param node The node to start from.
+     * @param path The field names of the path.
+     * @return The node at the path, or a {@link MissingNode} if there is none.
+     */
+    public static JsonNode at(JsonNode node, String[] path) {
+        JsonNode current = node;
+        for (String segment : path) {
+            if (current.isObject()) {
+                current = current.get(segment);
+            } else if (current.isArray()) {
+                current = current.get(parseArrayIndex(segment));
+            } else {
+                current = null;
+            }
+            if (current == null) {
+                return MissingNode.getInstance();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Parse a path segment as an array index, following the same rules as a JSON pointer.
+     *
+     * @param segment The path segment.
+     * @return The array index, or -1 if the segment isn't an array index.
+     */
+    private static int parseArrayIndex(String segment) {
+        int length = segment.length();
+        if (length == 0 || length > 10 || (length > 1 && segment.charAt(0) == '0')) {
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        long index = Long.parseLong(segment);
+        return index > Integer.MAX_VALUE ? -1 : (int) index;
+    }
 }
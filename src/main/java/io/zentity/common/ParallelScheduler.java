@@ -0,0 +1,209 @@
+package io.zentity.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Runs async tasks with a bounded number of tasks in flight at one time.
+ *
+ * <p>
+ * The tasks wait in a single queue, and whichever task finishes first frees its slot for the next task in the queue,
+ * so a slow task never holds back the tasks behind it. Tasks are started from a loop rather than from the completion
+ * of the task before them, so the stack depth stays constant no matter how many tasks there are or how many of them
+ * complete synchronously.
+ *
+ * <p>
+ * The first task to fail fails the whole run, and any tasks that are still in flight are cancelled. Cancelling the
+ * future of a run stops it from starting more tasks and cancels the tasks that are in flight. When a task timeout is
+ * given, a task that does not finish within it fails with a {@link TimeoutException}.
+ */
+public class ParallelScheduler {
+
+    private final int parallelism;
+    private final Duration taskTimeout;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * @param parallelism The max tasks to run at one time.
+     */
+    public ParallelScheduler(int parallelism) {
+        this(parallelism, null, null);
+    }
+
+    /**
+     * @param parallelism The max tasks to run at one time.
+     * @param taskTimeout The max time that each task may take, or null for no limit.
+     * @param timer       The executor that fails tasks that exceed the timeout. Required when there is a timeout.
+     */
+    public ParallelScheduler(int parallelism, Duration taskTimeout, ScheduledExecutorService timer) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Cannot have parallelism less than 1");
+        }
+        if (taskTimeout != null) {
+            Objects.requireNonNull(timer, "timer cannot be null when there is a task timeout");
+        }
+        this.parallelism = parallelism;
+        this.taskTimeout = taskTimeout;
+        this.timer = timer;
+    }
+
+    /**
+     * Run a list of async tasks.
+     *
+     * @param suppliers A list of suppliers that kick off async work.
+     * @param <T>       The result type of a single async task.
+     * @return A future with the results of all of them, in the order of the suppliers.
+     */
+    public <T> CompletableFuture<List<T>> run(List<Supplier<CompletableFuture<T>>> suppliers) {
+        Run<T> run = new Run<>(suppliers);
+        run.drain();
+        return run.result;
+    }
+
+    /**
+     * The state of a single call to {@link #run(List)}.
+     */
+    private class Run<T> {
+        private final List<Supplier<CompletableFuture<T>>> suppliers;
+        private final int size;
+        private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+
+        // The futures of the tasks in flight, and then the results of the tasks once they finish.
+        private final AtomicReferenceArray<Object> slots;
+
+        // Number of times that drain() was asked to run. Only the caller that raises it from zero runs the loop,
+        // and the loop repeats until every request made while it was running has been served.
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger finished = new AtomicInteger();
+
+        // Index of the next task to start. Only read and written by the thread running the drain loop.
+        private int next = 0;
+
+        Run(List<Supplier<CompletableFuture<T>>> suppliers) {
+            this.suppliers = suppliers;
+            this.size = suppliers.size();
+            this.slots = new AtomicReferenceArray<>(size);
+            if (size == 0) {
+                this.result.complete(new ArrayList<>());
+            }
+            // Cancelling or failing the run cancels every task that is still in flight.
+            this.result.whenComplete((res, err) -> {
+                if (err != null) {
+                    cancelInFlight();
+                }
+            });
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (next < size && inFlight.get() < parallelism && !result.isDone()) {
+                    start(next++);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void start(int idx) {
+            inFlight.incrementAndGet();
+            CompletableFuture<T> fut;
+            try {
+                fut = withTimeout(suppliers.get(idx).get());
+            } catch (Exception ex) {
+                fut = CompletableFutureUtil.exceptionallyCompletedFuture(ex);
+            }
+            slots.set(idx, fut);
+            // Runs right away if the task already finished, which only queues another pass of the drain loop.
+            fut.whenComplete((res, err) -> finish(idx, res, err));
+        }
+
+        private void finish(int idx, T res, Throwable err) {
+            if (err != null) {
+                result.completeExceptionally(CompletableFutureUtil.getCause(err));
+                return;
+            }
+            slots.set(idx, new Result<>(res));
+            inFlight.decrementAndGet();
+            if (finished.incrementAndGet() == size) {
+                result.complete(results());
+            } else {
+                drain();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> results() {
+            List<T> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(((Result<T>) slots.get(i)).value);
+            }
+            return results;
+        }
+
+        private void cancelInFlight() {
+            for (int i = 0; i < size; i++) {
+                Object slot = slots.get(i);
+                if (slot instanceof CompletableFuture) {
+                    ((CompletableFuture<?>) slot).cancel(false);
+                }
+            }
+        }
+
+        private CompletableFuture<T> withTimeout(CompletableFuture<T> fut) {
+            if (taskTimeout == null || fut.isDone()) {
+                return fut;
+            }
+            CompletableFuture<T> timed = new CompletableFuture<>();
+            // Cancel the task before the run sees the timeout, so that it no longer runs once the run has failed.
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> timeout = timer.schedule(() -> {
+                timedOut.set(true);
+                fut.cancel(false);
+            }, taskTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            fut.whenComplete((res, err) -> {
+                timeout.cancel(false);
+                if (err instanceof CancellationException && timedOut.get()) {
+                    timed.completeExceptionally(new TimeoutException("Task did not finish within " + taskTimeout.toMillis() + "ms."));
+                } else if (err != null) {
+                    timed.completeExceptionally(err);
+                } else {
+                    timed.complete(res);
+                }
+            });
+            // Cancelling the task through the scheduler cancels the underlying task.
+            timed.whenComplete((res, err) -> {
+                if (err instanceof CancellationException) {
+                    fut.cancel(false);
+                }
+            });
+            return timed;
+        }
+    }
+
+    /**
+     * Holds the result of a finished task, which may be null, to tell it apart from the future of a task in flight.
+     */
+    private static class Result<T> {
+        private final T value;
+
+        Result(T value) {
+            this.value = value;
+        }
+    }
+}
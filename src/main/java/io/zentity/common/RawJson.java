@@ -0,0 +1,159 @@
+package io.zentity.common;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A JSON value that is already serialized as UTF-8 bytes. When it is written as a raw value, such as through
+ * {@link #toRawValue()}, a generator that writes UTF-8 copies the bytes straight into its output without parsing them
+ * or decoding them into characters.
+ */
+public class RawJson implements SerializableString {
+
+    private final byte[] bytes;
+    private String value;
+
+    public RawJson(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Get the JSON of XContent bytes, such as the "_source" of a search hit. JSON is used as is. Other content types
+     * are converted to JSON.
+     *
+     * @param content The XContent bytes.
+     * @return The JSON.
+     * @throws IOException If the content cannot be converted to JSON.
+     */
+    public static RawJson of(BytesReference content) throws IOException {
+        XContentType contentType = XContentHelper.xContentType(content);
+        if (contentType != XContentType.JSON) {
+            return new RawJson(XContentHelper.convertToJson(content, false, contentType).getBytes(StandardCharsets.UTF_8));
+        }
+        return new RawJson(BytesReference.toBytes(content));
+    }
+
+    /**
+     * Wrap the JSON to be written as is by a generator, for example as the value of a field of an ObjectNode.
+     *
+     * @return The raw value.
+     */
+    public RawValue toRawValue() {
+        return new RawValue(this);
+    }
+
+    @Override
+    public String getValue() {
+        if (value == null) {
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+        return JsonStringEncoder.getInstance().quoteAsString(getValue());
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        return bytes;
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        return JsonStringEncoder.getInstance().quoteAsUTF8(getValue());
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+        return append(asQuotedUTF8(), buffer, offset);
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+        return append(asQuotedChars(), buffer, offset);
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        return append(bytes, buffer, offset);
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        String str = getValue();
+        int length = str.length();
+        if (offset + length > buffer.length) {
+            return -1;
+        }
+        str.getChars(0, length, buffer, offset);
+        return length;
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        byte[] quoted = asQuotedUTF8();
+        out.write(quoted);
+        return quoted.length;
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) {
+        return put(asQuotedUTF8(), buffer);
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        return put(bytes, buffer);
+    }
+
+    @Override
+    public String toString() {
+        return getValue();
+    }
+
+    private static int append(byte[] src, byte[] buffer, int offset) {
+        if (offset + src.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(src, 0, buffer, offset, src.length);
+        return src.length;
+    }
+
+    private static int append(char[] src, char[] buffer, int offset) {
+        if (offset + src.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(src, 0, buffer, offset, src.length);
+        return src.length;
+    }
+
+    private static int put(byte[] src, ByteBuffer buffer) {
+        if (src.length > buffer.remaining()) {
+            return -1;
+        }
+        buffer.put(src);
+        return src.length;
+    }
+}
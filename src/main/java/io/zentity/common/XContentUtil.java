@@ -1,15 +1,42 @@
 package io.zentity.common;
 
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.search.SearchModule;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.UnaryOperator;
 
 public class XContentUtil {
+    /**
+     * Holds the default registry so that it is only built when first needed.
+     */
+    private static class DefaultRegistryHolder {
+        private static final NamedXContentRegistry REGISTRY = new NamedXContentRegistry(
+            new SearchModule(Settings.EMPTY, false, Collections.emptyList()).getNamedXContents()
+        );
+    }
+
+    /**
+     * Get a registry of the named xcontent parsers of a default {@link SearchModule}. The registry is expensive
+     * to build, so it is built once and shared. Prefer the node's registry where it is available,
+     * which also knows about the queries registered by other plugins.
+     *
+     * @return The shared registry.
+     */
+    public static NamedXContentRegistry defaultRegistry() {
+        return DefaultRegistryHolder.REGISTRY;
+    }
+
     public static String serialize(XContentBuilder builder) {
         return Strings.toString(builder);
     }
@@ -41,6 +68,18 @@ public class XContentUtil {
         return serializeAsJSON(content, ToXContent.EMPTY_PARAMS);
     }
 
+    /**
+     * Serialize to JSON bytes that a Jackson generator can write as a raw value without decoding them to a string.
+     * Fragments are wrapped in an object.
+     *
+     * @param content The content to serialize.
+     * @return The JSON.
+     * @throws IOException When there is an issue with serialization.
+     */
+    public static RawJson serializeAsRawJSON(ToXContent content) throws IOException {
+        return new RawJson(BytesReference.toBytes(XContentHelper.toXContent(content, XContentType.JSON, false)));
+    }
+
     public static UnaryOperator<XContentBuilder> composeModifiers(List<UnaryOperator<XContentBuilder>> builderModifiers) {
         return builderModifiers
             .stream()
@@ -0,0 +1,126 @@
+package io.zentity.model;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.zentity.common.Patterns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A serialized matcher clause that has been split into literal text and the {{ variable }} slots between it.
+ * The clause is searched for variables once, when the matcher is loaded, and populating the clause only needs to
+ * concatenate the literals with the variable values. Because variables can only appear inside JSON strings,
+ * the values are escaped as JSON string content.
+ */
+public class ClauseTemplate {
+
+    public static final String VARIABLE_FIELD = "field";
+    public static final String VARIABLE_VALUE = "value";
+
+    // There is always one more literal than there are slots.
+    private final List<String> literals;
+    private final List<String> slots;
+
+    private ClauseTemplate(List<String> literals, List<String> slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    /**
+     * Compile a serialized clause into a template. Only the {{ field }}, {{ value }}, and {{ params.* }} variables
+     * become slots. Any other variables are kept as literal text.
+     *
+     * @param clause Clause serialized as a string.
+     * @return The template.
+     */
+    public static ClauseTemplate compile(String clause) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        java.util.regex.Matcher m = Patterns.VARIABLE.matcher(clause);
+        StringBuilder literal = new StringBuilder();
+        int start = 0;
+        while (m.find()) {
+            String variable = m.group(1);
+            literal.append(clause, start, m.start());
+            start = m.end();
+            if (isSlot(variable)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(variable);
+            } else {
+                literal.append(m.group());
+            }
+        }
+        literal.append(clause, start, clause.length());
+        literals.add(literal.toString());
+        return new ClauseTemplate(literals, slots);
+    }
+
+    private static boolean isSlot(String variable) {
+        return variable.equals(VARIABLE_FIELD)
+            || variable.equals(VARIABLE_VALUE)
+            || Patterns.VARIABLE_PARAMS.matcher(variable).find();
+    }
+
+    private static String escape(String value) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(value));
+    }
+
+    /**
+     * The names of the variables that have yet to be populated.
+     *
+     * @return The variable names.
+     */
+    public Set<String> variables() {
+        return Collections.unmodifiableSet(new TreeSet<>(this.slots));
+    }
+
+    /**
+     * Populate some of the variables of the template.
+     *
+     * @param values The values of the variables to populate, by variable name.
+     * @return A new template where only the variables without a value remain.
+     */
+    public ClauseTemplate bind(Map<String, String> values) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(this.literals.get(0));
+        for (int i = 0; i < this.slots.size(); i++) {
+            String variable = this.slots.get(i);
+            String value = values.get(variable);
+            if (value == null) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(variable);
+            } else {
+                literal.append(escape(value));
+            }
+            literal.append(this.literals.get(i + 1));
+        }
+        literals.add(literal.toString());
+        return new ClauseTemplate(literals, slots);
+    }
+
+    /**
+     * Populate the {{ value }} variable of a template whose other variables have already been populated.
+     *
+     * @param value The value.
+     * @return The populated clause.
+     * @throws IllegalStateException If a variable other than {{ value }} remains.
+     */
+    public String render(String value) {
+        String escaped = escape(value);
+        StringBuilder clause = new StringBuilder(this.literals.get(0));
+        for (int i = 0; i < this.slots.size(); i++) {
+            if (!this.slots.get(i).equals(VARIABLE_VALUE)) {
+                throw new IllegalStateException("The variable '{{ " + this.slots.get(i) + " }}' has not been populated.");
+            }
+            clause.append(escaped).append(this.literals.get(i + 1));
+        }
+        return clause.toString();
+    }
+}
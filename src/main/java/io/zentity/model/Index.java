@@ -43,10 +43,10 @@ public class Index {
     }
 
     public Map<String, IndexField> fields() {
-        return this.fields;
+        return Collections.unmodifiableMap(this.fields);
     }
 
-    public void fields(JsonNode value) throws ValidationException {
+    private void fields(JsonNode value) throws ValidationException {
         validateFields(value);
         Map<String, IndexField> fields = new TreeMap<>();
         Iterator<Map.Entry<String, JsonNode>> children = value.fields();
@@ -102,16 +102,15 @@ public class Index {
      * during a resolution job.
      */
     private void rebuildAttributeIndexFieldsMap() {
-        this.attributeIndexFieldsMap = new TreeMap<>();
-        for (String indexFieldName : this.fields().keySet()) {
-            String attributeName = this.fields().get(indexFieldName).attribute();
-            if (!this.attributeIndexFieldsMap.containsKey(attributeName)) {
-                this.attributeIndexFieldsMap.put(attributeName, new TreeMap<>());
-            }
-            if (!this.attributeIndexFieldsMap.get(attributeName).containsKey(indexFieldName)) {
-                this.attributeIndexFieldsMap.get(attributeName).put(indexFieldName, this.fields.get(indexFieldName));
-            }
+        Map<String, Map<String, IndexField>> attributeIndexFieldsMap = new TreeMap<>();
+        for (String indexFieldName : this.fields.keySet()) {
+            String attributeName = this.fields.get(indexFieldName).attribute();
+            attributeIndexFieldsMap
+                .computeIfAbsent(attributeName, (name) -> new TreeMap<>())
+                .putIfAbsent(indexFieldName, this.fields.get(indexFieldName));
         }
+        attributeIndexFieldsMap.replaceAll((attributeName, indexFields) -> Collections.unmodifiableMap(indexFields));
+        this.attributeIndexFieldsMap = Collections.unmodifiableMap(attributeIndexFieldsMap);
     }
 
     /**
@@ -129,7 +128,7 @@ public class Index {
      * @param json Index object of an entity model.
      * @throws ValidationException
      */
-    public void deserialize(JsonNode json) throws ValidationException {
+    private void deserialize(JsonNode json) throws ValidationException {
         validateObject(json);
 
         // Validate the existence of required fields.
@@ -154,7 +153,7 @@ public class Index {
         }
     }
 
-    public void deserialize(String json) throws ValidationException, IOException {
+    private void deserialize(String json) throws ValidationException, IOException {
         deserialize(Json.MAPPER.readTree(json));
     }
 
@@ -1,6 +1,5 @@
 package io.zentity.model;
 
-import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.zentity.common.Json;
 import io.zentity.common.Patterns;
@@ -21,8 +20,8 @@ public class IndexField {
 
     private final String index;
     private final String name;
-    private JsonPointer path;
-    private JsonPointer pathParent;
+    private String[] path;
+    private String[] pathParent;
     private String attribute;
     private String matcher;
     private Double quality;
@@ -51,11 +50,11 @@ public class IndexField {
         return this.name;
     }
 
-    public JsonPointer path() {
+    public String[] path() {
         return this.path;
     }
 
-    public JsonPointer pathParent() {
+    public String[] pathParent() {
         return this.pathParent;
     }
 
@@ -63,7 +62,7 @@ public class IndexField {
         return this.attribute;
     }
 
-    public void attribute(JsonNode value) throws ValidationException {
+    private void attribute(JsonNode value) throws ValidationException {
         validateAttribute(value);
         this.attribute = value.textValue();
     }
@@ -72,16 +71,16 @@ public class IndexField {
         return this.matcher;
     }
 
-    public void matcher(JsonNode value) throws ValidationException {
+    private void matcher(JsonNode value) throws ValidationException {
         validateMatcher(value);
         this.matcher = value.textValue();
     }
 
     private void nameToPaths(String name) {
         String[] parts = Patterns.PERIOD.split(name);
-        this.path = JsonPointer.compile("/" + String.join("/", parts));
+        this.path = parts;
         if (parts.length > 1) {
-            this.pathParent = JsonPointer.compile("/" + String.join("/", Arrays.copyOf(parts, parts.length - 1)));
+            this.pathParent = Arrays.copyOf(parts, parts.length - 1);
         }
     }
 
@@ -89,7 +88,7 @@ public class IndexField {
         return this.quality;
     }
 
-    public void quality(JsonNode value) throws ValidationException {
+    private void quality(JsonNode value) throws ValidationException {
         validateQuality(value);
         this.quality = value.doubleValue();
     }
@@ -149,7 +148,7 @@ public class IndexField {
      * @param json Index object of an entity model.
      * @throws ValidationException
      */
-    public void deserialize(JsonNode json) throws ValidationException {
+    private void deserialize(JsonNode json) throws ValidationException {
         validateObject(json);
 
         // Validate the existence of required fields.
@@ -181,7 +180,7 @@ public class IndexField {
         }
     }
 
-    public void deserialize(String json) throws ValidationException, IOException {
+    private void deserialize(String json) throws ValidationException, IOException {
         deserialize(Json.MAPPER.readTree(json));
     }
 
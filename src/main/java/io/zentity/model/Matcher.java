@@ -12,7 +12,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.regex.Pattern;
 
 public class Matcher {
 
@@ -24,7 +23,8 @@ public class Matcher {
     private String clause;
     private final Map<String, String> params = new TreeMap<>();
     private Double quality;
-    private Map<String, Pattern> variables = new TreeMap<>();
+    private ClauseTemplate template;
+    private boolean term;
 
     public Matcher(String name, JsonNode json) throws ValidationException, JsonProcessingException {
         validateName(name);
@@ -38,25 +38,6 @@ public class Matcher {
         this.deserialize(json);
     }
 
-    /**
-     * Extract the names of the variables expressed in a clause as {{ variable }}.
-     * These will be used when populating the matcher clause to prevent redundant regular expression replacements.
-     *
-     * @param clause Clause serialized as a string.
-     * @return
-     */
-    public static Map<String, Pattern> parseVariables(String clause) {
-        // TODO: replace with Moustache lang parser
-        java.util.regex.Matcher m = Patterns.VARIABLE.matcher(clause);
-        Map<String, Pattern> variables = new TreeMap<>();
-        while (m.find()) {
-            String variable = m.group(1);
-            Pattern pattern = Pattern.compile("\\{\\{\\s*(" + Pattern.quote(variable) + ")\\s*}}");
-            variables.put(variable, pattern);
-        }
-        return variables;
-    }
-
     public String name() {
         return this.name;
     }
@@ -66,24 +47,88 @@ public class Matcher {
     }
 
     public Map<String, String> params() {
-        return this.params;
+        return Collections.unmodifiableMap(this.params);
     }
 
     public Double quality() {
         return this.quality;
     }
 
-    public Map<String, Pattern> variables() {
-        return this.variables;
+    public ClauseTemplate template() {
+        return this.template;
+    }
+
+    /**
+     * Whether the clause is a plain "term" query of the {{ field }} variable for the {{ value }} variable, in which
+     * case the clauses of several values can be combined into one "terms" query that matches any of them.
+     *
+     * @return Boolean decision.
+     */
+    public boolean isTerm() {
+        return this.term;
     }
 
-    public void clause(JsonNode value) throws ValidationException, JsonProcessingException {
+    private void clause(JsonNode value) throws ValidationException, JsonProcessingException {
         validateClause(value);
         this.clause = Json.MAPPER.writeValueAsString(value);
-        this.variables = parseVariables(this.clause);
+        this.template = ClauseTemplate.compile(this.clause);
+        this.term = isTermClause(value);
+    }
+
+    /**
+     * Determine if a clause is either {"term":{"{{ field }}":"{{ value }}"}} or
+     * {"term":{"{{ field }}":{"value":"{{ value }}"}}}. Any other option of the "term" query, such as "boost" or
+     * "case_insensitive", has no equivalent for the values of a "terms" query.
+     */
+    private static boolean isTermClause(JsonNode clause) {
+        JsonNode term = clause.get("term");
+        if (clause.size() != 1 || term == null || !term.isObject() || term.size() != 1) {
+            return false;
+        }
+        Map.Entry<String, JsonNode> field = term.fields().next();
+        if (!isVariable(field.getKey(), ClauseTemplate.VARIABLE_FIELD)) {
+            return false;
+        }
+        JsonNode value = field.getValue();
+        if (value.isObject() && value.size() == 1) {
+            value = value.get("value");
+        }
+        return value != null && value.isTextual() && isVariable(value.textValue(), ClauseTemplate.VARIABLE_VALUE);
+    }
+
+    private static boolean isVariable(String text, String variable) {
+        java.util.regex.Matcher m = Patterns.VARIABLE.matcher(text);
+        return m.matches() && m.group(1).equals(variable);
+    }
+
+    /**
+     * Populate the {{ field }} and {{ params.* }} variables of the clause, leaving only the {{ value }} variable.
+     *
+     * @param indexFieldName The name of the index field to populate in the clause.
+     * @param params         The values of the parameters (if any) to pass to the matcher.
+     * @return The template of the clause for the index field.
+     * @throws ValidationException If the clause uses a parameter that was given no value.
+     */
+    public ClauseTemplate bind(String indexFieldName, Map<String, String> params) throws ValidationException {
+        Map<String, String> values = new TreeMap<>();
+        for (String variable : this.template.variables()) {
+            if (variable.equals(ClauseTemplate.VARIABLE_FIELD)) {
+                values.put(variable, indexFieldName);
+            } else if (!variable.equals(ClauseTemplate.VARIABLE_VALUE)) {
+                java.util.regex.Matcher m = Patterns.VARIABLE_PARAMS.matcher(variable);
+                if (m.find()) {
+                    String var = m.group(1);
+                    if (!params.containsKey(var)) {
+                        throw new ValidationException("'matchers." + this.name + "' was given no value for '{{ " + variable + " }}'");
+                    }
+                    values.put(variable, params.get(var));
+                }
+            }
+        }
+        return this.template.bind(values);
     }
 
-    public void quality(JsonNode value) throws ValidationException {
+    private void quality(JsonNode value) throws ValidationException {
         validateQuality(value);
         this.quality = value.doubleValue();
     }
@@ -135,7 +180,7 @@ public class Matcher {
      * @param json Matcher object of an entity model.
      * @throws ValidationException
      */
-    public void deserialize(JsonNode json) throws ValidationException, JsonProcessingException {
+    private void deserialize(JsonNode json) throws ValidationException, JsonProcessingException {
         validateObject(json);
 
         // Validate the existence of required fields.
@@ -160,7 +205,7 @@ public class Matcher {
                         break;
                     if (!value.isObject())
                         throw new ValidationException("'matchers." + this.name + ".params' must be an object.");
-                    this.params().putAll(Json.toStringMap(value));
+                    this.params.putAll(Json.toStringMap(value));
                     break;
                 case "quality":
                     this.quality(value);
@@ -171,7 +216,7 @@ public class Matcher {
         }
     }
 
-    public void deserialize(String json) throws ValidationException, IOException {
+    private void deserialize(String json) throws ValidationException, IOException {
         deserialize(Json.MAPPER.readTree(json));
     }
 
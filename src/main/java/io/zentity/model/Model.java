@@ -3,27 +3,78 @@ package io.zentity.model;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.zentity.common.Json;
+import io.zentity.common.Patterns;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
+/**
+ * An immutable entity model. Lookups that depend only on the model are computed once when it is parsed, so a model
+ * can be shared by any number of concurrent jobs. The scope of a request is applied with
+ * {@link #includeIndices(Set)}, {@link #excludeIndices(Set)}, {@link #includeResolvers(Set)}, and
+ * {@link #excludeResolvers(Set)}, which return views of the model rather than changing it.
+ */
 public class Model {
 
-    private final Map<String, Attribute> attributes = new TreeMap<>();
-    private final Map<String, Index> indices = new TreeMap<>();
-    private final Map<String, Matcher> matchers = new TreeMap<>();
-    private final Map<String, Resolver> resolvers = new TreeMap<>();
+    private Map<String, Attribute> attributes;
+    private Map<String, Index> indices;
+    private Map<String, Matcher> matchers;
+    private Map<String, Resolver> resolvers;
+
+    // For each index and index field, the matcher params overridden by the model attribute params.
+    private Map<String, Map<String, Map<String, String>>> indexFieldParams;
+
+    // For each index and index field of a "date" attribute, the format from the model attribute or the matcher.
+    private Map<String, Map<String, String>> indexFieldDateFormats;
+
+    // For each index and index field with a matcher, the attribute identity confidence score of a match.
+    private Map<String, Map<String, Double>> indexFieldScores;
+
+    // The position of each attribute in the sorted attribute names.
+    private Map<String, Integer> attributeOrdinals;
+
+    // The names of all attributes used by the resolvers.
+    private Set<String> resolverAttributes;
+
+    // The parsed entity model that this view was made from, or this model if it isn't a view.
+    private final Model base;
 
     public Model(JsonNode json) throws ValidationException, JsonProcessingException {
+        this.base = this;
         this.deserialize(json);
     }
 
     public Model(String json) throws ValidationException, IOException {
+        this.base = this;
         this.deserialize(json);
     }
 
+    /**
+     * Create a view of an entity model with a subset of its indices and resolvers.
+     *
+     * @param model     The entity model.
+     * @param indices   The indices of the view.
+     * @param resolvers The resolvers of the view.
+     */
+    private Model(Model model, Map<String, Index> indices, Map<String, Resolver> resolvers) {
+        this.attributes = model.attributes;
+        this.indices = Collections.unmodifiableMap(indices);
+        this.matchers = model.matchers;
+        this.resolvers = Collections.unmodifiableMap(resolvers);
+        this.indexFieldParams = model.indexFieldParams;
+        this.indexFieldDateFormats = model.indexFieldDateFormats;
+        this.indexFieldScores = model.indexFieldScores;
+        this.attributeOrdinals = model.attributeOrdinals;
+        this.resolverAttributes = buildResolverAttributes(this.resolvers);
+        this.base = model.base;
+    }
+
     public Map<String, Attribute> attributes() {
         return this.attributes;
     }
@@ -40,6 +91,252 @@ public class Model {
         return this.resolvers;
     }
 
+    public Set<String> resolverAttributes() {
+        return this.resolverAttributes;
+    }
+
+    /**
+     * Get the parsed entity model that this view was made from, which is this model if it isn't a view. Views of the
+     * same model share its indices and resolvers, so caches of what is derived from them can be keyed by the base.
+     *
+     * @return The base entity model.
+     */
+    public Model base() {
+        return this.base;
+    }
+
+    /**
+     * Get the params to pass to the matcher of an index field before any params of the input attribute are applied.
+     * The params of the model attribute override the params of the matcher.
+     *
+     * @param indexName      The name of the index.
+     * @param indexFieldName The name of the index field.
+     * @return The params, which are empty if the index field has no matcher.
+     */
+    public Map<String, String> indexFieldParams(String indexName, String indexFieldName) {
+        return this.indexFieldParams
+            .getOrDefault(indexName, Collections.emptyMap())
+            .getOrDefault(indexFieldName, Collections.emptyMap());
+    }
+
+    /**
+     * Get the date format of an index field of a "date" attribute, as given by the params of the model attribute, or
+     * otherwise the params of the matcher of the index field.
+     *
+     * @param indexName      The name of the index.
+     * @param indexFieldName The name of the index field.
+     * @return The date format, or null if neither the model attribute nor the matcher specify one.
+     */
+    public String indexFieldDateFormat(String indexName, String indexFieldName) {
+        return this.indexFieldDateFormats
+            .getOrDefault(indexName, Collections.emptyMap())
+            .get(indexFieldName);
+    }
+
+    /**
+     * Get the attribute identity confidence score of a match on an index field, which combines the score of its
+     * attribute with the qualities of its matcher and of the index field.
+     *
+     * @param indexName      The name of the index.
+     * @param indexFieldName The name of the index field.
+     * @return The score, or null if the attribute has no score or the index field has no matcher.
+     */
+    public Double indexFieldScore(String indexName, String indexFieldName) {
+        return this.indexFieldScores
+            .getOrDefault(indexName, Collections.emptyMap())
+            .get(indexFieldName);
+    }
+
+    /**
+     * Get the position of an attribute in the sorted attribute names, for tables that are indexed by attribute.
+     *
+     * @param attributeName The name of the attribute.
+     * @return The position, or -1 if the attribute is not in the entity model.
+     */
+    public int attributeOrdinal(String attributeName) {
+        return this.attributeOrdinals.getOrDefault(attributeName, -1);
+    }
+
+    /**
+     * Calculate an attribute identity confidence score given a base score, a matcher quality score, and an index field
+     * quality score. Any quality score of 0.0 will lead to a division by zero. When that happens, set the output score
+     * to 0.0, because an attribute can give no confidence of an identity when any of the quality scores are 0.0.
+     *
+     * @param attributeIdentityConfidenceBaseScore The score of the attribute.
+     * @param matcherQualityScore                  The quality of the matcher.
+     * @param indexFieldQualityScore               The quality of the index field.
+     * @return The score, or null if there is no base score.
+     */
+    public static Double attributeIdentityConfidenceScore(Double attributeIdentityConfidenceBaseScore, Double matcherQualityScore, Double indexFieldQualityScore) {
+        if (attributeIdentityConfidenceBaseScore == null) {
+            return null;
+        }
+        double score = attributeIdentityConfidenceBaseScore;
+        if (matcherQualityScore != null) {
+            score = ((score - 0.5) / (score - 0.0) * ((score * matcherQualityScore) - score)) + score;
+        }
+
+        if (indexFieldQualityScore != null) {
+            score = ((score - 0.5) / (score - 0.0) * ((score * indexFieldQualityScore) - score)) + score;
+        }
+
+        if (Double.isNaN(score)) {
+            score = 0.0;
+        }
+        return score;
+    }
+
+    /**
+     * Include indices in a view of the entity model, while excluding all the others.
+     *
+     * @param indices Names of indices from "scope.include.indices" to include in the entity model.
+     * @return A view of the entity model.
+     * @throws ValidationException If an index is not in the entity model.
+     */
+    public Model includeIndices(Set<String> indices) throws ValidationException {
+        validateIndices(indices);
+        Map<String, Index> included = new TreeMap<>(this.indices);
+        included.keySet().retainAll(indices);
+        return new Model(this, included, this.resolvers);
+    }
+
+    /**
+     * Exclude indices from a view of the entity model, while retaining all the others.
+     *
+     * @param indices Names of indices from "scope.exclude.indices" to exclude in the entity model.
+     * @return A view of the entity model.
+     * @throws ValidationException If an index is not in the entity model.
+     */
+    public Model excludeIndices(Set<String> indices) throws ValidationException {
+        validateIndices(indices);
+        Map<String, Index> included = new TreeMap<>(this.indices);
+        included.keySet().removeAll(indices);
+        return new Model(this, included, this.resolvers);
+    }
+
+    /**
+     * Include resolvers in a view of the entity model, while excluding all the others.
+     *
+     * @param resolvers Names of resolvers from "scope.include.resolvers" to include in the entity model.
+     * @return A view of the entity model.
+     * @throws ValidationException If a resolver is not in the entity model.
+     */
+    public Model includeResolvers(Set<String> resolvers) throws ValidationException {
+        validateResolvers(resolvers);
+        Map<String, Resolver> included = new TreeMap<>(this.resolvers);
+        included.keySet().retainAll(resolvers);
+        return new Model(this, this.indices, included);
+    }
+
+    /**
+     * Exclude resolvers from a view of the entity model, while retaining all the others.
+     *
+     * @param resolvers Names of resolvers from "scope.exclude.resolvers" to exclude in the entity model.
+     * @return A view of the entity model.
+     * @throws ValidationException If a resolver is not in the entity model.
+     */
+    public Model excludeResolvers(Set<String> resolvers) throws ValidationException {
+        validateResolvers(resolvers);
+        Map<String, Resolver> included = new TreeMap<>(this.resolvers);
+        included.keySet().removeAll(resolvers);
+        return new Model(this, this.indices, included);
+    }
+
+    private void validateIndices(Set<String> indices) throws ValidationException {
+        for (String index : indices) {
+            if (index == null || index.equals("")) {
+                continue;
+            }
+            if (!this.indices.containsKey(index)) {
+                throw new ValidationException("'" + index + "' is not in the 'indices' field of the entity model.");
+            }
+        }
+    }
+
+    private void validateResolvers(Set<String> resolvers) throws ValidationException {
+        for (String resolver : resolvers) {
+            if (resolver == null || resolver.equals("")) {
+                continue;
+            }
+            if (!this.resolvers.containsKey(resolver)) {
+                throw new ValidationException("'" + resolver + "' is not in the 'resolvers' field of the entity model.");
+            }
+        }
+    }
+
+    /**
+     * Get the "format" param, if it has a usable value.
+     *
+     * @param params The params.
+     * @return The format, or null.
+     */
+    private static String format(Map<String, String> params) {
+        String format = params.get("format");
+        if (format == null || format.equals("null") || Patterns.EMPTY_STRING.matcher(format).matches()) {
+            return null;
+        }
+        return format;
+    }
+
+    private static Set<String> buildResolverAttributes(Map<String, Resolver> resolvers) {
+        Set<String> resolverAttributes = new TreeSet<>();
+        for (Resolver resolver : resolvers.values()) {
+            resolverAttributes.addAll(resolver.attributes());
+        }
+        return Collections.unmodifiableSet(resolverAttributes);
+    }
+
+    /**
+     * Compute the lookups of the index fields that depend only on the entity model.
+     */
+    private void buildIndexFieldLookups() {
+        Map<String, Map<String, Map<String, String>>> indexFieldParams = new TreeMap<>();
+        Map<String, Map<String, String>> indexFieldDateFormats = new TreeMap<>();
+        Map<String, Map<String, Double>> indexFieldScores = new TreeMap<>();
+        for (Index index : this.indices.values()) {
+            Map<String, Map<String, String>> fieldParams = new TreeMap<>();
+            Map<String, String> fieldDateFormats = new TreeMap<>();
+            Map<String, Double> fieldScores = new TreeMap<>();
+            for (IndexField indexField : index.fields().values()) {
+                Attribute attribute = this.attributes.get(indexField.attribute());
+                Matcher matcher = indexField.matcher() == null ? null : this.matchers.get(indexField.matcher());
+                if (attribute == null) {
+                    continue;
+                }
+                if (matcher != null) {
+                    Map<String, String> params = new TreeMap<>(matcher.params());
+                    params.putAll(attribute.params());
+                    fieldParams.put(indexField.name(), Collections.unmodifiableMap(params));
+                    Double score = attributeIdentityConfidenceScore(attribute.score(), matcher.quality(), indexField.quality());
+                    if (score != null) {
+                        fieldScores.put(indexField.name(), score);
+                    }
+                }
+                if (attribute.type().equals("date")) {
+                    String format = format(attribute.params());
+                    if (format == null && matcher != null) {
+                        format = format(matcher.params());
+                    }
+                    if (format != null) {
+                        fieldDateFormats.put(indexField.name(), format);
+                    }
+                }
+            }
+            indexFieldParams.put(index.name(), Collections.unmodifiableMap(fieldParams));
+            indexFieldDateFormats.put(index.name(), Collections.unmodifiableMap(fieldDateFormats));
+            indexFieldScores.put(index.name(), Collections.unmodifiableMap(fieldScores));
+        }
+        this.indexFieldParams = Collections.unmodifiableMap(indexFieldParams);
+        this.indexFieldDateFormats = Collections.unmodifiableMap(indexFieldDateFormats);
+        this.indexFieldScores = Collections.unmodifiableMap(indexFieldScores);
+
+        Map<String, Integer> attributeOrdinals = new HashMap<>();
+        for (String attributeName : this.attributes.keySet()) {
+            attributeOrdinals.put(attributeName, attributeOrdinals.size());
+        }
+        this.attributeOrdinals = Collections.unmodifiableMap(attributeOrdinals);
+    }
+
     /**
      * Validate a top-level field of the entity model.
      *
@@ -73,10 +370,14 @@ public class Model {
 
     }
 
-    public void deserialize(JsonNode json) throws ValidationException, JsonProcessingException {
+    private void deserialize(JsonNode json) throws ValidationException, JsonProcessingException {
         if (!json.isObject()) {
             throw new ValidationException("Entity model must be an object.");
         }
+        Map<String, Attribute> attributes = new TreeMap<>();
+        Map<String, Index> indices = new TreeMap<>();
+        Map<String, Matcher> matchers = new TreeMap<>();
+        Map<String, Resolver> resolvers = new TreeMap<>();
         Iterator<Map.Entry<String, JsonNode>> fields = json.fields();
         while (fields.hasNext()) {
             Map.Entry<String, JsonNode> field = fields.next();
@@ -91,16 +392,16 @@ public class Model {
                 JsonNode object = child.getValue();
                 switch (fieldName) {
                     case "attributes":
-                        this.attributes.put(name, new Attribute(name, object));
+                        attributes.put(name, new Attribute(name, object));
                         break;
                     case "indices":
-                        this.indices.put(name, new Index(name, object));
+                        indices.put(name, new Index(name, object));
                         break;
                     case "matchers":
-                        this.matchers.put(name, new Matcher(name, object));
+                        matchers.put(name, new Matcher(name, object));
                         break;
                     case "resolvers":
-                        this.resolvers.put(name, new Resolver(name, object));
+                        resolvers.put(name, new Resolver(name, object));
                         break;
                     default:
                         throw new ValidationException("'" + fieldName + "' is not a recognized field.");
@@ -108,21 +409,27 @@ public class Model {
             }
 
         }
-        if (this.attributes.size() == 0) {
+        if (attributes.size() == 0) {
             throw new ValidationException("'attributes' is missing.");
         }
-        if (this.resolvers.size() == 0) {
+        if (resolvers.size() == 0) {
             throw new ValidationException("'resolvers' is missing.");
         }
-        if (this.matchers.size() == 0) {
+        if (matchers.size() == 0) {
             throw new ValidationException("'matchers' is missing.");
         }
-        if (this.indices.size() == 0) {
+        if (indices.size() == 0) {
             throw new ValidationException("'indices' is missing.");
         }
+        this.attributes = Collections.unmodifiableMap(attributes);
+        this.indices = Collections.unmodifiableMap(indices);
+        this.matchers = Collections.unmodifiableMap(matchers);
+        this.resolvers = Collections.unmodifiableMap(resolvers);
+        this.resolverAttributes = buildResolverAttributes(this.resolvers);
+        this.buildIndexFieldLookups();
     }
 
-    public void deserialize(String json) throws ValidationException, IOException {
+    private void deserialize(String json) throws ValidationException, IOException {
         deserialize(Json.MAPPER.readTree(json));
     }
 
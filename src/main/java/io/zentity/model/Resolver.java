@@ -38,12 +38,12 @@ public class Resolver {
     }
 
     public Set<String> attributes() {
-        return this.attributes;
+        return Collections.unmodifiableSet(this.attributes);
     }
 
     public int weight () { return this.weight; }
 
-    public void attributes(JsonNode value) throws ValidationException {
+    private void attributes(JsonNode value) throws ValidationException {
         validateAttributes(value);
         Set<String> attributes = new TreeSet<>();
         for (JsonNode attribute : value) {
@@ -52,7 +52,7 @@ public class Resolver {
         this.attributes = attributes;
     }
 
-    public void weight(JsonNode value) throws ValidationException {
+    private void weight(JsonNode value) throws ValidationException {
         validateWeight(value);
         this.weight = value.asInt();
     }
@@ -112,7 +112,7 @@ public class Resolver {
      * @param json Resolver object of an entity model.
      * @throws ValidationException
      */
-    public void deserialize(JsonNode json) throws ValidationException {
+    private void deserialize(JsonNode json) throws ValidationException {
         validateObject(json);
 
         // Validate the existence of required fields.
@@ -141,7 +141,7 @@ public class Resolver {
         }
     }
 
-    public void deserialize(String json) throws ValidationException, IOException {
+    private void deserialize(String json) throws ValidationException, IOException {
         deserialize(Json.MAPPER.readTree(json));
     }
 
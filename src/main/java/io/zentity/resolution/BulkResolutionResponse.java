@@ -1,7 +1,12 @@
 package io.zentity.resolution;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
+import java.io.IOException;
 import java.util.List;
 
 public class BulkResolutionResponse {
@@ -14,4 +19,54 @@ public class BulkResolutionResponse {
 
     // all the responses in the request
     public List<ResolutionResponse> items;
+
+    /**
+     * A line of a streamed bulk response, which is the response of one job along with the position of the job in
+     * the request. Streamed items are written in the order in which the jobs finish.
+     */
+    @JsonSerialize(using = Item.Serializer.class)
+    public static class Item {
+        // position of the job in the request, starting at 0
+        public final int seq;
+        public final ResolutionResponse response;
+
+        public Item(int seq, ResolutionResponse response) {
+            this.seq = seq;
+            this.response = response;
+        }
+
+        public static class Serializer extends StdSerializer<Item> {
+            public Serializer() {
+                this(null);
+            }
+
+            public Serializer(Class<Item> typeClass) {
+                super(typeClass);
+            }
+
+            @Override
+            public void serialize(Item value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeStartObject();
+                gen.writeNumberField("_seq", value.seq);
+                ResolutionResponse.Serializer.serializeFields(value.response, gen, provider);
+                gen.writeEndObject();
+            }
+        }
+    }
+
+    /**
+     * The last line of a streamed bulk response.
+     */
+    public static class Summary {
+        // took, in ms
+        @JsonProperty("took")
+        public long tookMs;
+
+        // whether some of the responses are failures
+        public boolean errors;
+
+        // the number of items that were streamed
+        @JsonProperty("items")
+        public int itemCount;
+    }
 }
@@ -0,0 +1,65 @@
+package io.zentity.resolution;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+
+/**
+ * The _ids of the documents that a {@link Job} has fetched from an index.
+ *
+ * <p>
+ * The _ids are stored as UTF-8 bytes in a single open-addressing hash rather than as a set of strings, which keeps
+ * the size of the set close to the size of the _ids themselves. Not thread-safe.
+ */
+public class DocIdSet {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final BytesRefHash hash = new BytesRefHash(INITIAL_CAPACITY, BigArrays.NON_RECYCLING_INSTANCE);
+    private final BytesRefBuilder scratch = new BytesRefBuilder();
+
+    /**
+     * Add an _id to the set.
+     *
+     * @param id The _id.
+     * @return Whether the _id was not already in the set.
+     */
+    public boolean add(String id) {
+        scratch.copyChars(id);
+        return hash.add(scratch.get()) >= 0;
+    }
+
+    /**
+     * Check if an _id is in the set.
+     *
+     * @param id The _id.
+     * @return Whether the _id is in the set.
+     */
+    public boolean contains(String id) {
+        scratch.copyChars(id);
+        return hash.find(scratch.get()) >= 0;
+    }
+
+    public int size() {
+        return (int) hash.size();
+    }
+
+    public boolean isEmpty() {
+        return hash.size() == 0;
+    }
+
+    /**
+     * Get the _ids in the order in which they were added.
+     *
+     * @return The _ids.
+     */
+    public String[] toArray() {
+        String[] ids = new String[size()];
+        BytesRef spare = new BytesRef();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = hash.get(i, spare).utf8ToString();
+        }
+        return ids;
+    }
+}
@@ -1,16 +1,18 @@
 package io.zentity.resolution;
 
-import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.zentity.common.ActionRequestUtil;
 import io.zentity.common.CompletableFutureUtil;
-import io.zentity.common.FunctionalUtil.UnCheckedBiFunction;
+import io.zentity.common.DateFormats;
 import io.zentity.common.FunctionalUtil.UnCheckedFunction;
 import io.zentity.common.FunctionalUtil.UnCheckedSupplier;
 import io.zentity.common.Json;
 import io.zentity.common.Patterns;
+import io.zentity.common.RawJson;
+import io.zentity.common.XContentUtil;
+import io.zentity.model.ClauseTemplate;
 import io.zentity.model.Index;
 import io.zentity.model.IndexField;
 import io.zentity.model.Matcher;
@@ -22,14 +24,18 @@ import io.zentity.resolution.input.Attribute;
 import io.zentity.resolution.input.Input;
 import io.zentity.resolution.input.Term;
 import io.zentity.resolution.input.value.Value;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.ClearScrollAction;
+import org.elasticsearch.action.search.ClearScrollRequestBuilder;
 import org.elasticsearch.action.search.SearchAction;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollAction;
+import org.elasticsearch.action.search.SearchScrollRequestBuilder;
 import org.elasticsearch.client.node.NodeClient;
-import org.elasticsearch.common.CheckedBiFunction;
 import org.elasticsearch.common.CheckedFunction;
 import org.elasticsearch.common.CheckedSupplier;
-import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
@@ -37,22 +43,28 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.index.mapper.IgnoredFieldMapper;
 import org.elasticsearch.index.query.AbstractQueryBuilder;
 import org.elasticsearch.index.query.BoolQueryBuilder;
-import org.elasticsearch.index.query.ExistsQueryBuilder;
 import org.elasticsearch.index.query.IdsQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptType;
-import org.elasticsearch.search.SearchModule;
-import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.transport.RemoteClusterAware;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -60,11 +72,13 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static io.zentity.resolution.BoolQueryUtils.BoolQueryCombiner.FILTER;
@@ -85,24 +99,66 @@ public class Job {
     public static final boolean DEFAULT_INCLUDE_SEQ_NO_PRIMARY_TERM = false;
     public static final boolean DEFAULT_INCLUDE_SOURCE = true;
     public static final boolean DEFAULT_INCLUDE_VERSION = false;
+    public static final boolean DEFAULT_INCREMENTAL_HOPS = false;
+    public static final int DEFAULT_MAX_CONCURRENT_QUERIES_PER_HOP = 1;
     public static final int DEFAULT_MAX_DOCS_PER_QUERY = 1000;
     public static final int DEFAULT_MAX_HOPS = 100;
     public static final TimeValue DEFAULT_MAX_TIME_PER_QUERY = TimeValue.parseTimeValue("10s", "default_max_time_per_query");
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    public static final boolean DEFAULT_PAGINATE = false;
     public static final boolean DEFAULT_PROFILE = false;
+    public static final SeenDocsExclusion DEFAULT_SEEN_DOCS_EXCLUSION = SeenDocsExclusion.QUERY;
+
+    // How long to keep the scroll context of a search between its pages.
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    /**
+     * How a job excludes the documents that it has already fetched from an index.
+     */
+    public enum SeenDocsExclusion {
+        /**
+         * Exclude the _ids of the fetched documents in a "must_not" clause of each query.
+         */
+        QUERY,
+
+        /**
+         * Skip the fetched documents when reading the hits, and page through the hits with a scroll until enough
+         * unseen documents are read. The size of the query does not grow with the number of fetched documents.
+         */
+        CLIENT
+    }
 
     // Job configuration
     private final NodeClient client;
+    private final Executor executor;
+    private final NamedXContentRegistry xContentRegistry;
     private final JobConfig config;
 
     // Job state
-    private AttributeIdConfidenceScoreMap attributeIdConfidenceScores;
     private Map<String, Attribute> attributes;
-    private Map<String, Set<String>> docIds;
+    private Map<String, DocIdSet> docIds;
     private List<JsonNode> hits;
+    private Set<String> incompleteIndices;
+    private Map<String, Attribute> newAttributes;
     private List<LoggedQuery> queries;
 
-    public Job(NodeClient client, JobConfig config) {
+    // The values that the terms can be interpreted as, by attribute type and then by date format (or "" for types
+    // other than "date"). Terms don't change during a job, so each type and format is interpreted only once.
+    private Map<String, Map<String, Set<Value>>> termValuesByType;
+
+    // The values read from hits, by attribute type and then by value node. The same values tend to be read from
+    // many hits, so each one is built and validated once per job, and every set that holds it shares the instance
+    // along with its cached hash and serialized form. Concurrent because the hits of a hop may be read concurrently.
+    private Map<String, Map<JsonNode, Value>> valueDictionary;
+
+    // The unnamed "scope.exclude.attributes" and "scope.include.attributes" clauses of each index, which don't change
+    // during the job. Only built while the searches of a hop are prepared, which happens on one thread.
+    private Map<List<String>, QueryBuilder> scopeClauses;
+
+    public Job(NodeClient client, Executor executor, NamedXContentRegistry xContentRegistry, JobConfig config) {
         this.client = client;
+        this.executor = executor;
+        this.xContentRegistry = xContentRegistry;
         this.config = config;
         initializeState();
     }
@@ -169,8 +225,64 @@ public class Job {
         return loggedQuery;
     }
 
+    /**
+     * Get the "format" param of an input attribute, if it has a usable value.
+     *
+     * @param inputAttributes The input attributes.
+     * @param attributeName   The name of the attribute.
+     * @return The format, or null.
+     */
+    static String inputDateFormat(Map<String, Attribute> inputAttributes, String attributeName) {
+        Attribute attribute = inputAttributes.get(attributeName);
+        if (attribute == null) {
+            return null;
+        }
+        String format = attribute.params().get("format");
+        if (format == null || format.equals("null") || Patterns.EMPTY_STRING.matcher(format).matches()) {
+            return null;
+        }
+        return format;
+    }
+
+    /**
+     * Get the "format" param of an index field that is associated with a "date" attribute. The format of the input
+     * attribute takes precedence over the format of the model attribute, which takes precedence over the format of
+     * the matcher.
+     *
+     * @param index           The index.
+     * @param inputAttributes The input attributes.
+     * @param model           The entity model.
+     * @param attributeName   The name of the "date" attribute.
+     * @param indexFieldName  The name of the index field.
+     * @return The format.
+     * @throws ValidationException If no format is specified.
+     */
+    static String dateAttributeFormat(
+        Index index,
+        Map<String, Attribute> inputAttributes,
+        Model model,
+        String attributeName,
+        String indexFieldName
+    ) throws ValidationException {
+        // Check if the required params are defined in the input attribute.
+        String inputFormat = inputDateFormat(inputAttributes, attributeName);
+        if (inputFormat != null) {
+            return inputFormat;
+        }
+        // Otherwise check if the required params are defined in the model attribute or in the matcher associated
+        // with the index field.
+        String format = model.indexFieldDateFormat(index.name(), indexFieldName);
+        if (format == null) {
+            // If we've gotten this far, that means that the required params for this attribute type
+            // haven't been specified in any valid places.
+            throw new ValidationException("'attributes." + attributeName + "' is a 'date' which required a 'format' to be specified in the params.");
+        }
+        return format;
+    }
+
     /**
      * Build a {@link Script} for index fields that are associated with "date" attributes.
+     * This is only needed for formats that {@link DateFormats#isDocValueDateFormat(String)} rejects.
      *
      * @param index
      * @param inputAttributes
@@ -187,35 +299,7 @@ public class Job {
         String attributeName,
         String indexFieldName
     ) throws ValidationException {
-        String format;
-        // Check if the required params are defined in the input attribute.
-        if (inputAttributes.containsKey(attributeName)
-            && inputAttributes.get(attributeName).params().containsKey("format")
-            && !inputAttributes.get(attributeName).params().get("format").equals("null")
-            && !Patterns.EMPTY_STRING.matcher(inputAttributes.get(attributeName).params().get("format")).matches()) {
-            format = inputAttributes.get(attributeName).params().get("format");
-        } else {
-            // Otherwise check if the required params are defined in the model attribute.
-            Map<String, String> params = model.attributes().get(attributeName).params();
-            if (params.containsKey("format")
-                && !params.get("format").equals("null")
-                && !Patterns.EMPTY_STRING.matcher(params.get("format")).matches()) {
-                format = params.get("format");
-            } else {
-                // Otherwise check if the required params are defined in the matcher associated with the index field.
-                String matcherName = index.attributeIndexFieldsMap().get(attributeName).get(indexFieldName).matcher();
-                params = model.matchers().get(matcherName).params();
-                if (params.containsKey("format")
-                    && !params.get("format").equals("null")
-                    && !Patterns.EMPTY_STRING.matcher(params.get("format")).matches()) {
-                    format = params.get("format");
-                } else {
-                    // If we've gotten this far, that means that the required params for this attribute type
-                    // haven't been specified in any valid places.
-                    throw new ValidationException("'attributes." + attributeName + "' is a 'date' which required a 'format' to be specified in the params.");
-                }
-            }
-        }
+        String format = dateAttributeFormat(index, inputAttributes, model, attributeName, indexFieldName);
 
         // Make the "script" clause
         String scriptCode = "DateFormat df = new SimpleDateFormat(params.format); df.setTimeZone(TimeZone.getTimeZone('UTC')); return df.format(doc[params.field].value.toInstant().toEpochMilli())";
@@ -232,6 +316,33 @@ public class Job {
         );
     }
 
+    /**
+     * Build the search "docvalue_fields" field.
+     *
+     * @param indexName The name of the index currently searching against.
+     * @param input     The resolution input.
+     * @return A map of index field names => formats to be included in the search.
+     * @throws ValidationException If the input is malformed.
+     */
+    public static Map<String, String> buildDocValueFields(String indexName, Input input) throws ValidationException {
+        // Index fields that are associated with a "date" attribute are fetched from the doc values, formatted in the
+        // format of the attribute, so that their values can be compared to the input values.
+        Map<String, String> docValueFields = new TreeMap<>();
+        Index index = input.model().indices().get(indexName);
+        for (String attributeName : index.attributeIndexFieldsMap().keySet()) {
+            if (!input.model().attributes().get(attributeName).type().equals("date")) {
+                continue;
+            }
+            for (String indexFieldName : index.attributeIndexFieldsMap().get(attributeName).keySet()) {
+                String format = dateAttributeFormat(index, input.attributes(), input.model(), attributeName, indexFieldName);
+                if (DateFormats.isDocValueDateFormat(format)) {
+                    docValueFields.put(indexFieldName, format);
+                }
+            }
+        }
+        return docValueFields;
+    }
+
     /**
      * Build the search "scripts" field.
      *
@@ -242,8 +353,8 @@ public class Job {
      */
     public static Map<String, Script> buildScriptFields(String indexName, Input input) throws ValidationException {
         // Find any index fields that need to be included in the "script_fields" clause.
-        // Currently this includes any index field that is associated with a "date" attribute,
-        // which requires the "_source" value to be reformatted to a normalized format.
+        // Currently this includes any index field that is associated with a "date" attribute whose format can't be
+        // given to "docvalue_fields", which requires the value to be reformatted by a script.
         Map<String, Script> scriptMap = new TreeMap<>();
 
         Index index = input.model().indices().get(indexName);
@@ -252,6 +363,10 @@ public class Job {
                 case "date":
                     // Make a "script" clause for each index field associated with this attribute.
                     for (String indexFieldName : index.attributeIndexFieldsMap().get(attributeName).keySet()) {
+                        String format = dateAttributeFormat(index, input.attributes(), input.model(), attributeName, indexFieldName);
+                        if (DateFormats.isDocValueDateFormat(format)) {
+                            continue;
+                        }
                         Script script = buildDateAttributeScript(index, input.attributes(), input.model(), attributeName, indexFieldName);
                         scriptMap.put(indexFieldName, script);
                     }
@@ -281,59 +396,11 @@ public class Job {
         return model.matchers().get(matcherName) != null;
     }
 
-    /**
-     * Determine if we can construct a query for a given resolver on a given index with a given input.
-     * Each attribute of the resolver must be mapped to a field of the index and have a matcher defined for it.
-     *
-     * @param model        The entity model.
-     * @param indexName    The name of the index to reference in the entity model.
-     * @param resolverName The name of the resolver to reference in the entity model.
-     * @param attributes   The values for the input attributes.
-     * @return Boolean decision.
-     */
-    private static boolean canQueryResolver(Model model, String indexName, String resolverName, Map<String, Attribute> attributes) {
-        Map<String, Map<String, IndexField>> attributeIndexFieldMap = model.indices().get(indexName).attributeIndexFieldsMap();
-        // Each attribute of the resolver must pass these conditions:
-        for (String attributeName : model.resolvers().get(resolverName).attributes()) {
-
-            // The input must have the attribute.
-            if (!attributes.containsKey(attributeName)) {
-                return false;
-            }
-
-            // The input must have at least one value for the attribute.
-            if (attributes.get(attributeName).values().isEmpty()) {
-                return false;
-            }
-
-            // The index must have at least one index field mapped to the attribute.
-            if (!attributeIndexFieldMap.containsKey(attributeName)) {
-                return false;
-            }
-
-            if (attributeIndexFieldMap.get(attributeName).isEmpty()) {
-                return false;
-            }
-
-            // The index field must have a matcher defined for it.
-            boolean hasMatcher = false;
-            for (String indexFieldName : attributeIndexFieldMap.get(attributeName).keySet()) {
-                if (indexFieldHasMatcher(model, indexName, indexFieldName)) {
-                    hasMatcher = true;
-                    break;
-                }
-            }
-            if (!hasMatcher) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Given a clause from the "matchers" field of an entity model, replace the {{ field }} and {{ value }} variables
-     * and arbitrary parameters. If a parameter exists, the value
+     * and arbitrary parameters.
      *
+     * @param registry       The registry of the query parsers.
      * @param matcher        The matcher object.
      * @param indexFieldName The name of the index field to populate in the clause.
      * @param value          The value of the attribute to populate in the clause.
@@ -341,45 +408,34 @@ public class Job {
      * @return A "bool" clause that references the desired field and value.
      */
     static QueryBuilder buildMatcherClause(
-        Matcher matcher, String indexFieldName, String value, Map<String, String> params
+        NamedXContentRegistry registry, Matcher matcher, String indexFieldName, String value, Map<String, String> params
     ) throws ValidationException, IOException {
-        String matcherClause = matcher.clause();
-        for (String variable : matcher.variables().keySet()) {
-            Pattern pattern = matcher.variables().get(variable);
-            switch (variable) {
-                case "field":
-                    matcherClause = pattern.matcher(matcherClause).replaceAll(indexFieldName);
-                    break;
-                case "value":
-                    matcherClause = pattern.matcher(matcherClause).replaceAll(value);
-                    break;
-                default:
-                    java.util.regex.Matcher m = Patterns.VARIABLE_PARAMS.matcher(variable);
-                    if (m.find()) {
-                        String var = m.group(1);
-                        if (!params.containsKey(var)) {
-                            throw new ValidationException("'matchers." + matcher.name() + "' was given no value for '{{ " + variable + " }}'");
-                        }
-                        String paramValue = params.get(var);
-                        matcherClause = pattern.matcher(matcherClause).replaceAll(paramValue);
-                    }
-                    break;
-            }
-        }
+        return buildMatcherClause(registry, matcher.bind(indexFieldName, params), value);
+    }
 
-        try (XContentParser parser = buildXContentParser(matcherClause)) {
+    /**
+     * Populate the {{ value }} variable of a matcher clause that has been bound to an index field and parameters.
+     *
+     * @param registry The registry of the query parsers.
+     * @param template The bound matcher clause.
+     * @param value    The value of the attribute to populate in the clause.
+     * @return A "bool" clause that references the desired field and value.
+     */
+    static QueryBuilder buildMatcherClause(NamedXContentRegistry registry, ClauseTemplate template, String value) throws IOException {
+        try (XContentParser parser = buildXContentParser(registry, template.render(value))) {
             return AbstractQueryBuilder.parseInnerQueryBuilder(parser);
         }
     }
 
     static List<QueryBuilder> buildIndexFieldQueries(
+        NamedXContentRegistry registry,
         Model model,
         String indexName,
         Map<String, Attribute> attributes,
         String attributeName,
         BoolQueryCombiner combiner,
         boolean namedFilters,
-        AtomicInteger nameIdCounter
+        NamedQueries namedQueries
     ) throws ValidationException, IOException {
         List<QueryBuilder> indexFieldQueries = new ArrayList<>();
 
@@ -393,17 +449,33 @@ public class Job {
             String matcherName = model.indices().get(indexName).fields().get(indexFieldName).matcher();
             Matcher matcher = model.matchers().get(matcherName);
             List<QueryBuilder> valueClauses = new ArrayList<>();
+            ClauseTemplate template = null;
 
             // Determine which values to pass to the matcher parameters.
             // Order of precedence:
             //  - Input attribute params override model attribute params
             //  - Model attribute params override matcher attribute params
-            Map<String, String> params = new TreeMap<>();
-            params.putAll(matcher.params());
-            params.putAll(model.attributes().get(attributeName).params());
+            Map<String, String> params = new TreeMap<>(model.indexFieldParams(indexName, indexFieldName));
             params.putAll(attributes.get(attributeName).params());
 
             Attribute attribute = attributes.get(attributeName);
+
+            // Match any of several values of a "term" matcher with a single "terms" query, which is smaller, is
+            // faster to rewrite on the shards, and doesn't count towards the limit of the clauses of a "bool" query.
+            // Named clauses are kept apart so that "_explanation" and "_score" can tell which value matched.
+            if (combiner == SHOULD && !namedFilters && matcher.isTerm() && attribute.values().size() > 1) {
+                List<String> terms = new ArrayList<>();
+                for (Value value : attribute.values()) {
+                    if (value.serialized() != null && !value.serialized().equals("")) {
+                        terms.add(value.serialized());
+                    }
+                }
+                if (terms.size() > 1) {
+                    indexFieldQueries.add(QueryBuilders.termsQuery(indexFieldName, terms));
+                    continue;
+                }
+            }
+
             for (Value value : attribute.values()) {
 
                 // Skip value if it's blank.
@@ -411,18 +483,15 @@ public class Job {
                     continue;
                 }
 
-                // Populate the {{ field }}, {{ value }}, and {{ param.* }} variables of the matcher template.
-                QueryBuilder valueClause = buildMatcherClause(matcher, indexFieldName, value.serialized(), params);
+                // Populate the {{ field }} and {{ param.* }} variables of the matcher template once per index field,
+                // then the {{ value }} variable for each value.
+                if (template == null) {
+                    template = matcher.bind(indexFieldName, params);
+                }
+                QueryBuilder valueClause = buildMatcherClause(registry, template, value.serialized());
                 if (namedFilters) {
                     // Name the clause to determine why any matching document matched
-                    QueryValue queryValue = new QueryValue(
-                        attributeName,
-                        indexFieldName,
-                        matcherName,
-                        value,
-                        nameIdCounter.getAndIncrement()
-                    );
-                    String name = queryValue.serialize();
+                    String name = namedQueries.name(attributeName, indexFieldName, matcherName, value);
                     valueClause = new BoolQueryBuilder()
                         .queryName(name)
                         .filter(valueClause);
@@ -451,6 +520,7 @@ public class Job {
      * for each attribute name in the set of attributes, find all index field names that are mapped to the attribute
      * name and populate their matcher clauses.
      *
+     * @param registry   The registry of the query parsers.
      * @param model      The entity model.
      * @param indexName  The name of the index to reference in the entity model.
      * @param attributes The names and values of the input attributes.
@@ -458,25 +528,27 @@ public class Job {
      * @return The list of attribute clauses.
      */
     static List<QueryBuilder> buildAttributeQueries(
+        NamedXContentRegistry registry,
         Model model,
         String indexName,
         Map<String, Attribute> attributes,
         BoolQueryCombiner combiner,
         boolean namedFilters,
-        AtomicInteger nameIdCounter
+        NamedQueries namedQueries
     ) throws ValidationException, IOException {
         List<QueryBuilder> attributeClauses = new ArrayList<>();
         for (String attributeName : attributes.keySet()) {
 
             // Construct a "should" or "filter" clause for each index field mapped to this attribute.
             List<QueryBuilder> indexFieldClauses = buildIndexFieldQueries(
+                registry,
                 model,
                 indexName,
                 attributes,
                 attributeName,
                 combiner,
                 namedFilters,
-                nameIdCounter
+                namedQueries
             );
             if (indexFieldClauses.size() == 0) {
                 continue;
@@ -494,63 +566,55 @@ public class Job {
         return attributeClauses;
     }
 
+    /**
+     * Construct a clause that matches the attribute values of the resolvers of a filter tree.
+     *
+     * @param registry            The registry of the query parsers.
+     * @param model               The entity model.
+     * @param indexName           The name of the index to reference in the entity model.
+     * @param resolversFilterTree The filter tree of the resolvers.
+     * @param attributes          The values of the attributes.
+     * @return The clause, or null if no attribute of the tree has values to match.
+     * @see ResolverClauses#resolversQuery(FilterTree)
+     */
     static QueryBuilder buildResolversQuery(
+        NamedXContentRegistry registry,
         Model model,
         String indexName,
         FilterTree resolversFilterTree,
         Map<String, Attribute> attributes,
-        boolean namedFilters, AtomicInteger nameIdCounter) throws ValidationException, IOException {
-        // Construct a "filter" clause for each attribute at this level of the filter tree.
-        List<QueryBuilder> clauses = new ArrayList<>();
-        for (String attributeName : resolversFilterTree.keySet()) {
-
-            // Construct a "should" clause for each index field mapped to this attribute.
-            List<QueryBuilder> indexFieldClauses = buildIndexFieldQueries(
-                model,
-                indexName,
-                attributes,
-                attributeName,
-                SHOULD,
-                namedFilters,
-                nameIdCounter
-            );
-            if (indexFieldClauses.size() == 0) {
-                continue;
-            }
-
-            // Combine multiple matcher clauses into a single "should" clause.
-            QueryBuilder indexFieldsClause;
-            if (indexFieldClauses.size() > 1) {
-                indexFieldsClause = BoolQueryUtils.combineQueries(SHOULD, indexFieldClauses);
-            } else {
-                indexFieldsClause = indexFieldClauses.get(0);
-            }
-
-            // Populate any child filters.
-            QueryBuilder filter = buildResolversQuery(
-                model,
-                indexName,
-                resolversFilterTree.get(attributeName),
-                attributes,
-                namedFilters,
-                nameIdCounter
-            );
-            if (filter != null) {
-                BoolQueryBuilder combo = BoolQueryUtils.combineQueries(FILTER, indexFieldsClause, filter);
-                clauses.add(combo);
-            } else {
-                clauses.add(indexFieldsClause);
-            }
-        }
+        boolean namedFilters,
+        NamedQueries namedQueries
+    ) throws ValidationException, IOException {
+        return new ResolverClauses(registry, model, indexName, attributes, Collections.emptyMap(), namedFilters, namedQueries)
+            .resolversQuery(resolversFilterTree);
+    }
 
-        // Combine each attribute clause into a single "should" clause.
-        int size = clauses.size();
-        if (size > 1) {
-            return BoolQueryUtils.combineQueries(SHOULD, clauses);
-        } else if (size == 1) {
-            return clauses.get(0);
-        }
-        return null;
+    /**
+     * Construct the same clause as {@link #buildResolversQuery}, except that each matching document must match at least
+     * one of the new attribute values.
+     *
+     * @param registry            The registry of the query parsers.
+     * @param model               The entity model.
+     * @param indexName           The name of the index to reference in the entity model.
+     * @param resolversFilterTree The filter tree of the resolvers.
+     * @param attributes          All known values of the attributes.
+     * @param newAttributes       The values of the attributes that are new since the previous hop.
+     * @return The clause, or null if no new value can match.
+     * @see ResolverClauses#incrementalResolversQuery(FilterTree)
+     */
+    static QueryBuilder buildIncrementalResolversQuery(
+        NamedXContentRegistry registry,
+        Model model,
+        String indexName,
+        FilterTree resolversFilterTree,
+        Map<String, Attribute> attributes,
+        Map<String, Attribute> newAttributes,
+        boolean namedFilters,
+        NamedQueries namedQueries
+    ) throws ValidationException, IOException {
+        return new ResolverClauses(registry, model, indexName, attributes, newAttributes, namedFilters, namedQueries)
+            .incrementalResolversQuery(resolversFilterTree);
     }
 
     /**
@@ -593,10 +657,18 @@ public class Job {
      * @return For each resolver, a list of attributes sorted first by priority and then lexicographically.
      */
     static List<List<String>> sortResolverAttributes(final Model model, final List<String> resolvers, final Map<String, Integer> counts) {
+        return sortResolverAttributes(model.resolvers(), resolvers, counts);
+    }
+
+    /**
+     * Sort the attributes of each resolver as in {@link #sortResolverAttributes(Model, List, Map)}, given the
+     * resolvers of the entity model by name.
+     */
+    static List<List<String>> sortResolverAttributes(final Map<String, Resolver> resolverMap, final List<String> resolvers, final Map<String, Integer> counts) {
         return resolvers.stream()
             .map((resolverName) -> {
                 Map<Integer, Set<String>> attributeGroups = new TreeMap<>();
-                for (String attributeName : model.resolvers().get(resolverName).attributes()) {
+                for (String attributeName : resolverMap.get(resolverName).attributes()) {
                     int count = counts.get(attributeName);
                     if (!attributeGroups.containsKey(count)) {
                         attributeGroups.put(count, new TreeSet<>());
@@ -625,9 +697,17 @@ public class Job {
      * @return For each attribute, the number of resolvers it appears in.
      */
     static Map<String, Integer> countAttributesAcrossResolvers(Model model, List<String> resolvers) {
+        return countAttributesAcrossResolvers(model.resolvers(), resolvers);
+    }
+
+    /**
+     * Count how many resolvers each attribute appears in as in {@link #countAttributesAcrossResolvers(Model, List)},
+     * given the resolvers of the entity model by name.
+     */
+    static Map<String, Integer> countAttributesAcrossResolvers(Map<String, Resolver> resolverMap, List<String> resolvers) {
         Map<String, Integer> counts = new TreeMap<>();
         for (String resolverName : resolvers) {
-            for (String attributeName : model.resolvers().get(resolverName).attributes()) {
+            for (String attributeName : resolverMap.get(resolverName).attributes()) {
                 counts.put(attributeName, counts.getOrDefault(attributeName, 0) + 1);
             }
         }
@@ -642,9 +722,17 @@ public class Job {
      * @return For each weight level, the names of the resolvers in that weight level.
      */
     public static Map<Integer, List<String>> groupResolversByWeight(Model model, List<String> resolvers) {
+        return groupResolversByWeight(model.resolvers(), resolvers);
+    }
+
+    /**
+     * Group resolvers by their level of weight as in {@link #groupResolversByWeight(Model, List)}, given the resolvers
+     * of the entity model by name.
+     */
+    static Map<Integer, List<String>> groupResolversByWeight(Map<String, Resolver> resolverMap, List<String> resolvers) {
         Map<Integer, List<String>> resolverGroups = new TreeMap<>();
         for (String resolverName : resolvers) {
-            Integer weight = model.resolvers().get(resolverName).weight();
+            Integer weight = resolverMap.get(resolverName).weight();
             if (!resolverGroups.containsKey(weight)) {
                 resolverGroups.put(weight, new ArrayList<>());
             }
@@ -667,58 +755,57 @@ public class Job {
      * @param attributeIdentityConfidenceScores
      */
     static Double calculateCompositeIdentityConfidenceScore(List<Double> attributeIdentityConfidenceScores) {
-        Double compositeIdentityConfidenceScore = null;
-        List<Double> scores = new ArrayList<>();
-        List<Double> scoresInverse = new ArrayList<>();
-        for (Double score : attributeIdentityConfidenceScores) {
-            if (score != null) {
-                scores.add(score);
-                scoresInverse.add(1.0 - score);
-            }
+        double[] scores = new double[attributeIdentityConfidenceScores.size()];
+        for (int i = 0; i < scores.length; i++) {
+            Double score = attributeIdentityConfidenceScores.get(i);
+            scores[i] = score == null ? Double.NaN : score;
         }
-        if (scores.size() > 0) {
-            Double productScores = scores.stream().reduce(1.0, (a, b) -> a * b);
-            Double productScoresInverse = scoresInverse.stream().reduce(1.0, (a, b) -> a * b);
-            compositeIdentityConfidenceScore = productScores / (productScores + productScoresInverse);
-            if (compositeIdentityConfidenceScore.isNaN()) {
-                compositeIdentityConfidenceScore = 0.5;
+        double compositeIdentityConfidenceScore = calculateCompositeIdentityConfidenceScore(scores);
+        return Double.isNaN(compositeIdentityConfidenceScore) ? null : compositeIdentityConfidenceScore;
+    }
+
+    /**
+     * Same as {@link #calculateCompositeIdentityConfidenceScore(List)}, over an array where a missing score is NaN.
+     *
+     * @param attributeIdentityConfidenceScores
+     * @return The composite score, or NaN if there are no scores.
+     */
+    static double calculateCompositeIdentityConfidenceScore(double[] attributeIdentityConfidenceScores) {
+        int count = 0;
+        double productScores = 1.0;
+        double productScoresInverse = 1.0;
+        for (double score : attributeIdentityConfidenceScores) {
+            if (!Double.isNaN(score)) {
+                productScores *= score;
+                productScoresInverse *= 1.0 - score;
+                count++;
             }
         }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double compositeIdentityConfidenceScore = productScores / (productScores + productScoresInverse);
+        if (Double.isNaN(compositeIdentityConfidenceScore)) {
+            compositeIdentityConfidenceScore = 0.5;
+        }
         return compositeIdentityConfidenceScore;
     }
 
     /**
      * Calculate an attribute identity confidence score given a base score, a matcher quality score, and an index field
-     * quality score. Any quality score of 0.0 will lead to a division by zero. When that happens, set the output score
-     * to 0.0, because an attribute can give no confidence of an identity when any of the quality scores are 0.0.
+     * quality score. The scores of the index fields of an entity model are calculated once when the model is parsed.
      *
      * @param attributeIdentityConfidenceBaseScore
      * @param matcherQualityScore
      * @param indexFieldQualityScore
      * @return
+     * @see Model#attributeIdentityConfidenceScore(Double, Double, Double)
      */
     static Double calculateAttributeIdentityConfidenceScore(Double attributeIdentityConfidenceBaseScore, Double matcherQualityScore, Double indexFieldQualityScore) {
-        if (attributeIdentityConfidenceBaseScore == null) {
-            return null;
-        }
-        double score = attributeIdentityConfidenceBaseScore;
-        if (matcherQualityScore != null) {
-            score = ((score - 0.5) / (score - 0.0) * ((score * matcherQualityScore) - score)) + score;
-        }
-
-        if (indexFieldQualityScore != null) {
-            score = ((score - 0.5) / (score - 0.0) * ((score * indexFieldQualityScore) - score)) + score;
-        }
-
-        if (Double.isNaN(score)) {
-            score = 0.0;
-        }
-        return score;
+        return Model.attributeIdentityConfidenceScore(attributeIdentityConfidenceBaseScore, matcherQualityScore, indexFieldQualityScore);
     }
 
-    private static XContentParser buildXContentParser(String query) throws IOException {
-        SearchModule searchModule = new SearchModule(Settings.EMPTY, false, Collections.emptyList());
-        NamedXContentRegistry registry = new NamedXContentRegistry(searchModule.getNamedXContents());
+    private static XContentParser buildXContentParser(NamedXContentRegistry registry, String query) throws IOException {
         return XContentFactory.xContent(XContentType.JSON)
             .createParser(registry, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, query);
     }
@@ -727,133 +814,120 @@ public class Job {
      * Initializes/ resets the variables that hold the state of the job.
      */
     private void initializeState() {
-        this.attributeIdConfidenceScores = new AttributeIdConfidenceScoreMap();
         this.attributes = new TreeMap<>(this.config.input.attributes());
         this.docIds = new TreeMap<>();
         this.hits = new ArrayList<>();
+        this.incompleteIndices = new TreeSet<>();
+        this.newAttributes = new TreeMap<>();
         this.queries = new ArrayList<>();
+        this.termValuesByType = new HashMap<>();
+        this.valueDictionary = new ConcurrentHashMap<>();
+        this.scopeClauses = new HashMap<>();
     }
 
     /**
-     * Get a cached attribute identity confidence score, or calculate and cache an attribute identity confidence score.
-     * This function helps minimize calculations over the life of the resolution job.
+     * Add the attribute values of a search to the known attribute values. Values that weren't known before are also
+     * added to the new attribute values of the hop, which are reset by the caller at the start of each hop.
      *
-     * @param attributeName
-     * @param matcherName
-     * @param indexName
-     * @param indexFieldName
-     * @return The confidence score.
+     * @param nextInputAttributes The attribute values of a search.
+     * @return Whether any of the values weren't known before.
      */
-    private Double getAttributeIdentityConfidenceScore(String attributeName, String matcherName, String indexName, String indexFieldName) {
-        // Return the cached match score if it exists.
-        if (this.attributeIdConfidenceScores.hasScore(attributeName, matcherName, indexName, indexFieldName)) {
-            return this.attributeIdConfidenceScores.getScore(attributeName, matcherName, indexName, indexFieldName);
-        }
-
-        Model inputModel = this.config.input.model();
-
-        // Calculate the match score, cache it, and return it.
-        Double attributeIdentityConfidenceBaseScore = inputModel.attributes().get(attributeName).score();
-        if (attributeIdentityConfidenceBaseScore == null) {
-            return null;
-        }
-
-        Double matcherQualityScore = inputModel.matchers().get(matcherName).quality();
-        Double indexFieldQualityScore = inputModel.indices().get(indexName).fields().get(indexFieldName).quality();
-
-        double score = calculateAttributeIdentityConfidenceScore(attributeIdentityConfidenceBaseScore, matcherQualityScore, indexFieldQualityScore);
-        return this.attributeIdConfidenceScores.setScore(attributeName, matcherName, indexName, indexFieldName, score);
-    }
-
-    private boolean updateInputAttributes(Map<String, Attribute> nextInputAttributes) throws ValidationException {
+    private boolean updateInputAttributes(Map<String, Set<Value>> nextInputAttributes) throws ValidationException {
         boolean newHits = false;
         for (String attributeName : nextInputAttributes.keySet()) {
             if (!this.attributes.containsKey(attributeName)) {
                 String attributeType = this.config.input.model().attributes().get(attributeName).type();
                 this.attributes.put(attributeName, new Attribute(attributeName, attributeType));
             }
-            for (Value value : nextInputAttributes.get(attributeName).values()) {
-                Set<Value> values = this.attributes.get(attributeName).values();
-                if (!values.contains(value)) {
-                    values.add(value);
+            Attribute attribute = this.attributes.get(attributeName);
+            Set<Value> values = attribute.values();
+            for (Value value : nextInputAttributes.get(attributeName)) {
+                if (values.add(value)) {
                     newHits = true;
+                    if (!this.newAttributes.containsKey(attributeName)) {
+                        this.newAttributes.put(attributeName, new Attribute(attributeName, attribute.type(), attribute.params(), Collections.emptySet()));
+                    }
+                    this.newAttributes.get(attributeName).values().add(value);
                 }
             }
         }
         return newHits;
     }
 
+    /**
+     * Get the values that the terms can be interpreted as for an attribute type. The terms are only interpreted the
+     * first time that a type and format are asked for during a job.
+     *
+     * @param attributeType The attribute type.
+     * @param format        The date format, if the type is "date".
+     * @return The values.
+     */
+    private Set<Value> termValues(String attributeType, String format) {
+        return this.termValuesByType
+            .computeIfAbsent(attributeType, (type) -> new HashMap<>())
+            .computeIfAbsent(format == null ? "" : format, (f) -> {
+                Set<Value> values = new TreeSet<>();
+                for (Term term : this.config.input.terms()) {
+                    try {
+                        switch (attributeType) {
+                            case "boolean":
+                                if (term.isBoolean()) {
+                                    values.add(term.booleanValue());
+                                }
+                                break;
+                            case "date":
+                                if (format != null && term.isDate(format)) {
+                                    values.add(term.dateValue());
+                                }
+                                break;
+                            case "number":
+                                if (term.isNumber()) {
+                                    values.add(term.numberValue());
+                                }
+                                break;
+                            case "string":
+                                values.add(term.stringValue());
+                                break;
+                            default:
+                                break;
+                        }
+                    } catch (ValidationException | IOException e) {
+                        continue;
+                    }
+                }
+                return values;
+            });
+    }
+
     private Map<String, Set<Value>> buildTermValuesMap(String indexName, Set<String> resolverAttributes) {
         Map<String, Set<Value>> termValues = new TreeMap<>();
         for (String attributeName : resolverAttributes) {
             String attributeType = this.config.input.model().attributes().get(attributeName).type();
-            for (Term term : this.config.input.terms()) {
-                try {
-                    switch (attributeType) {
-                        case "boolean":
-                            if (term.isBoolean()) {
-                                termValues.putIfAbsent(attributeName, new TreeSet<>());
-                                termValues.get(attributeName).add(term.booleanValue());
-                            }
-                            break;
-                        case "date":
-                            // Determine which date format to use to parse the term.
-                            Index index = this.config.input.model().indices().get(indexName);
-                            // Check if the "format" param is defined in the input attribute.
-                            if (this.config.input.attributes().containsKey(attributeName)
-                                && this.config.input.attributes().get(attributeName).params().containsKey("format")
-                                && !this.config.input.attributes().get(attributeName).params().get("format").equals("null") && !Patterns.EMPTY_STRING.matcher(this.config.input.attributes().get(attributeName).params().get("format")).matches()) {
-                                String format = this.config.input.attributes().get(attributeName).params().get("format");
-                                if (term.isDate(format)) {
-                                    termValues.putIfAbsent(attributeName, new TreeSet<>());
-                                    termValues.get(attributeName).add(term.dateValue());
-                                }
-                            } else {
-                                // Otherwise check if the "format" param is defined in the model attribute.
-                                Map<String, String> params = this.config.input.model().attributes().get(attributeName).params();
-                                if (params.containsKey("format") && !params.get("format").equals("null") && !Patterns.EMPTY_STRING.matcher(params.get("format")).matches()) {
-                                    String format = params.get("format");
-                                    if (term.isDate(format)) {
-                                        termValues.putIfAbsent(attributeName, new TreeSet<>());
-                                        termValues.get(attributeName).add(term.dateValue());
-                                    }
-                                } else {
-                                    // Otherwise check if the "format" param is defined in the matcher
-                                    // associated with any index field associated with the attribute.
-                                    // Add any date values that successfully parse.
-                                    for (String indexFieldName : index.attributeIndexFieldsMap().get(attributeName).keySet()) {
-                                        String matcherName = index.attributeIndexFieldsMap().get(attributeName).get(indexFieldName).matcher();
-                                        params = this.config.input.model().matchers().get(matcherName).params();
-                                        if (params.containsKey("format") && !params.get("format").equals("null") && !Patterns.EMPTY_STRING.matcher(params.get("format")).matches()) {
-                                            String format = params.get("format");
-                                            if (term.isDate(format)) {
-                                                termValues.putIfAbsent(attributeName, new TreeSet<>());
-                                                termValues.get(attributeName).add(term.dateValue());
-                                            }
-                                        }
-                                        // else:
-                                        // If we've gotten this far, then this term can't be converted
-                                        // to a date value. Skip it and move on.
-                                    }
-                                }
-                            }
-                            break;
-                        case "number":
-                            if (term.isNumber()) {
-                                termValues.putIfAbsent(attributeName, new TreeSet<>());
-                                termValues.get(attributeName).add(term.numberValue());
-                            }
-                            break;
-                        case "string":
-                            termValues.putIfAbsent(attributeName, new TreeSet<>());
-                            termValues.get(attributeName).add(term.stringValue());
-                            break;
-                        default:
-                            break;
+            Set<Value> values = new TreeSet<>();
+            if (attributeType.equals("date")) {
+                // Determine which date formats to use to parse the terms.
+                // Use the "format" param of the input attribute if it's defined. Otherwise use the "format" params of
+                // the model attribute or of the matchers of the index fields associated with the attribute, and add
+                // any date values that successfully parse in any of them.
+                String inputFormat = inputDateFormat(this.config.input.attributes(), attributeName);
+                if (inputFormat != null) {
+                    values.addAll(termValues(attributeType, inputFormat));
+                } else {
+                    Index index = this.config.input.model().indices().get(indexName);
+                    Map<String, IndexField> indexFields = index.attributeIndexFieldsMap().getOrDefault(attributeName, Collections.emptyMap());
+                    for (String indexFieldName : indexFields.keySet()) {
+                        // If there is no format, then the terms can't be converted to date values.
+                        String format = this.config.input.model().indexFieldDateFormat(indexName, indexFieldName);
+                        if (format != null) {
+                            values.addAll(termValues(attributeType, format));
+                        }
                     }
-                } catch (ValidationException | IOException e) {
-                    continue;
                 }
+            } else {
+                values.addAll(termValues(attributeType, null));
+            }
+            if (!values.isEmpty()) {
+                termValues.put(attributeName, values);
             }
         }
 
@@ -885,12 +959,70 @@ public class Job {
         return termAttributes;
     }
 
+    /**
+     * Construct the "scope.exclude.attributes" or "scope.include.attributes" clause of an index. The scope doesn't
+     * change during the job, so the clause is built once per index, unless it is named, since the names belong to
+     * the table of a search.
+     *
+     * @param indexName  The name of the index.
+     * @param scopeField Either "exclude" or "include".
+     * @param attributes The attributes of the scope.
+     * @param combiner   Combine the attribute clauses with "should" or "filter".
+     * @return The clause, or null if there is no attribute clause.
+     */
+    private QueryBuilder buildScopeQuery(
+        String indexName,
+        String scopeField,
+        Map<String, Attribute> attributes,
+        BoolQueryCombiner combiner,
+        boolean namedFilters,
+        NamedQueries namedQueries
+    ) throws ValidationException, IOException {
+        if (attributes.isEmpty()) {
+            return null;
+        }
+        List<String> key = List.of(scopeField, indexName);
+        if (!namedFilters && this.scopeClauses.containsKey(key)) {
+            return this.scopeClauses.get(key);
+        }
+        List<QueryBuilder> attributeClauses = buildAttributeQueries(
+            this.xContentRegistry,
+            this.config.input.model(),
+            indexName,
+            attributes,
+            combiner,
+            namedFilters,
+            namedQueries
+        );
+        QueryBuilder clause = null;
+        if (attributeClauses.size() > 1) {
+            clause = BoolQueryUtils.combineQueries(combiner, attributeClauses);
+        } else if (attributeClauses.size() == 1) {
+            clause = attributeClauses.get(0);
+        }
+        if (!namedFilters) {
+            this.scopeClauses.put(key, clause);
+        }
+        return clause;
+    }
+
+    /**
+     * Construct the query of an index for the current hop.
+     *
+     * @param incremental Whether to match only the documents that match at least one of the new attribute values.
+     *                    This requires that the previous query of the index returned every document it matched.
+     * @param plan        The resolution plan of the index.
+     * @param resolvers   The resolvers of the plan that can query the index with the known attribute values.
+     * @return The query, or null if an incremental query has no new attribute values to match.
+     */
     private QueryBuilder buildSearchQuery(
         String indexName,
+        boolean incremental,
         boolean canQueryIds,
         boolean canQueryTerms,
-        List<String> resolvers,
-        AtomicInteger nameIdCounter,
+        ResolutionPlan plan,
+        ResolutionPlan.Resolvers resolvers,
+        NamedQueries namedQueries,
         boolean namedFilters,
         Map<Integer, FilterTree> resolversFilterTreeGrouped,
         List<String> termResolvers,
@@ -900,48 +1032,35 @@ public class Job {
         List<QueryBuilder> queryFilterClauses = new ArrayList<>();
 
         // Exclude docs by _id
-        Set<String> docIds = this.docIds.get(indexName);
-        if (!docIds.isEmpty()) {
-            queryMustNotClauses.add(new IdsQueryBuilder().addIds(docIds.toArray(new String[0])));
+        DocIdSet docIds = this.docIds.get(indexName);
+        if (this.config.seenDocsExclusion == SeenDocsExclusion.QUERY && !docIds.isEmpty()) {
+            queryMustNotClauses.add(new IdsQueryBuilder().addIds(docIds.toArray()));
         }
 
         // Create "scope.exclude.attributes" clauses. Combine them into a single "should" clause.
-        if (!this.config.input.scope().exclude().attributes().isEmpty()) {
-            List<QueryBuilder> attributeClauses = buildAttributeQueries(
-                this.config.input.model(),
-                indexName,
-                this.config.input.scope().exclude().attributes(),
-                SHOULD,
-                namedFilters,
-                nameIdCounter
-            );
-
-            int size = attributeClauses.size();
-            if (size > 1) {
-                BoolQueryBuilder combo = BoolQueryUtils.combineQueries(SHOULD, attributeClauses);
-                queryMustNotClauses.add(combo);
-            } else if (size == 1) {
-                queryMustNotClauses.add(attributeClauses.get(0));
-            }
+        QueryBuilder scopeExcludeClause = buildScopeQuery(
+            indexName,
+            "exclude",
+            this.config.input.scope().exclude().attributes(),
+            SHOULD,
+            namedFilters,
+            namedQueries
+        );
+        if (scopeExcludeClause != null) {
+            queryMustNotClauses.add(scopeExcludeClause);
         }
 
         // Construct "scope.include.attributes" clauses. Combine them into a single "filter" clause.
-        if (!this.config.input.scope().include().attributes().isEmpty()) {
-            List<QueryBuilder> attributeClauses = buildAttributeQueries(
-                this.config.input.model(),
-                indexName,
-                this.config.input.scope().include().attributes(),
-                FILTER,
-                namedFilters,
-                nameIdCounter
-            );
-            int size = attributeClauses.size();
-            if (size > 1) {
-                BoolQueryBuilder combo = BoolQueryUtils.combineQueries(FILTER, attributeClauses);
-                queryFilterClauses.add(combo);
-            } else if (size == 1) {
-                queryFilterClauses.add(attributeClauses.get(0));
-            }
+        QueryBuilder scopeIncludeClause = buildScopeQuery(
+            indexName,
+            "include",
+            this.config.input.scope().include().attributes(),
+            FILTER,
+            namedFilters,
+            namedQueries
+        );
+        if (scopeIncludeClause != null) {
+            queryFilterClauses.add(scopeIncludeClause);
         }
 
         // Construct the "ids" clause if this is the first hop and if any ids are specified for this index.
@@ -955,94 +1074,97 @@ public class Job {
 
         // Construct the resolvers clause for attribute values.
         QueryBuilder resolversClause = null;
-        FilterTree resolversFilterTree;
 
         if (!this.attributes.isEmpty()) {
-            // Group the resolvers by their weight level.
-            Map<Integer, List<String>> resolverGroups = groupResolversByWeight(this.config.input.model(), resolvers);
+            // The clauses of each attribute and filter tree are built once and shared by every part of the query.
+            ResolverClauses clauses = new ResolverClauses(
+                this.xContentRegistry,
+                this.config.input.model(),
+                indexName,
+                this.attributes,
+                this.newAttributes,
+                namedFilters,
+                namedQueries
+            );
 
-            // Construct a clause for each weight level in descending order of weight.
-            List<Integer> weights = new ArrayList<>(resolverGroups.keySet());
-            Collections.reverse(weights);
-            int numWeightLevels = weights.size();
+            // Log the filter tree of each weight level in descending order of weight.
+            List<List<String>> levels = resolvers.levels();
+            int numWeightLevels = levels.size();
             for (int level = 0; level < numWeightLevels; level++) {
-                Integer weight = weights.get(level);
-                List<String> resolversGroup = resolverGroups.get(weight);
-                Map<String, Integer> counts = countAttributesAcrossResolvers(this.config.input.model(), resolversGroup);
-                List<List<String>> resolversSorted = sortResolverAttributes(this.config.input.model(), resolversGroup, counts);
-                resolversFilterTree = makeResolversFilterTree(resolversSorted);
-                resolversFilterTreeGrouped.put(numWeightLevels - level - 1, resolversFilterTree);
-                resolversClause = buildResolversQuery(
-                    this.config.input.model(),
-                    indexName,
-                    resolversFilterTree,
-                    this.attributes,
-                    namedFilters,
-                    nameIdCounter
-                );
+                resolversFilterTreeGrouped.put(numWeightLevels - level - 1, resolvers.levelFilterTree(level));
+            }
+
+            // Construct the clause of the lowest weight level. The higher weight levels only appear in the query
+            // through the parent resolvers clauses of the lowest weight level, so each of them is built once.
+            if (numWeightLevels > 0) {
+                int level = numWeightLevels - 1;
+                FilterTree resolversFilterTree = resolvers.levelFilterTree(level);
+                resolversClause = clauses.resolversQuery(resolversFilterTree);
+
+                // An incremental query matches the resolvers with at least one new attribute value.
+                QueryBuilder incrementalResolversClause = null;
+                if (incremental) {
+                    incrementalResolversClause = clauses.incrementalResolversQuery(resolversFilterTree);
+                }
 
                 // If there are multiple levels of weight, then each lower weight group of resolvers must ensure
                 // that every higher weight resolver either matches or does not exist.
                 List<QueryBuilder> parentResolversClauses = new ArrayList<>();
-                if (level > 0) {
-
-                    // This is a lower weight group of resolvers.
-                    // Every higher weight resolver either must match or must not exist.
-                    for (int parentLevel = 0; parentLevel < level; parentLevel++) {
-                        Integer parentWeight = weights.get(parentLevel);
-                        List<String> parentResolversGroup = resolverGroups.get(parentWeight);
-                        List<QueryBuilder> parentResolverClauses = new ArrayList<>();
-                        for (String parentResolverName : parentResolversGroup) {
-
-                            // Construct a clause that checks if any attribute of the resolver does not exist.
-                            List<QueryBuilder> attributeExistsClauses = new ArrayList<>();
-                            for (String attributeName : this.config.input.model().resolvers().get(parentResolverName).attributes()) {
-                                BoolQueryBuilder notExistsClause = new BoolQueryBuilder();
-                                notExistsClause.mustNot(new ExistsQueryBuilder(attributeName));
-                                attributeExistsClauses.add(notExistsClause);
-                            }
-                            QueryBuilder attributesExistsClause = null;
-                            if (attributeExistsClauses.size() > 1) {
-                                attributesExistsClause = BoolQueryUtils.combineQueries(SHOULD, attributeExistsClauses);
-                            } else if (attributeExistsClauses.size() == 1) {
-                                attributesExistsClause = attributeExistsClauses.get(0);
+                List<QueryBuilder> incrementalParentResolverClauses = new ArrayList<>();
+                for (int parentLevel = 0; parentLevel < level; parentLevel++) {
+                    List<QueryBuilder> parentResolverClauses = new ArrayList<>();
+                    for (String parentResolverName : levels.get(parentLevel)) {
+
+                        // Construct a "should" clause that matches if any attribute of the resolver does not exist or
+                        // if the resolver matches.
+                        FilterTree parentResolverFilterTree = resolvers.resolverFilterTree(parentResolverName);
+                        BoolQueryBuilder combo = BoolQueryUtils.combineQueries(
+                            SHOULD,
+                            resolvers.resolverNotExistsClause(parentResolverName),
+                            clauses.resolversQuery(parentResolverFilterTree)
+                        );
+                        parentResolverClauses.add(combo);
+
+                        // A document that already matched this group of resolvers can be new to an incremental
+                        // query if a new attribute value lets it match a higher weight resolver.
+                        if (incremental) {
+                            QueryBuilder incrementalParentResolverClause = clauses.incrementalResolversQuery(parentResolverFilterTree);
+                            if (incrementalParentResolverClause != null) {
+                                incrementalParentResolverClauses.add(incrementalParentResolverClause);
                             }
-
-                            // Construct a clause for the resolver.
-                            List<String> parentResolverGroup = new ArrayList<>(Collections.singletonList(parentResolverName));
-                            Map<String, Integer> parentCounts = countAttributesAcrossResolvers(this.config.input.model(), parentResolverGroup);
-                            List<List<String>> parentResolverSorted = sortResolverAttributes(this.config.input.model(), parentResolverGroup, parentCounts);
-                            FilterTree parentResolverFilterTree = makeResolversFilterTree(parentResolverSorted);
-                            QueryBuilder parentResolverClause = buildResolversQuery(
-                                this.config.input.model(),
-                                indexName,
-                                parentResolverFilterTree,
-                                this.attributes,
-                                namedFilters,
-                                nameIdCounter
-                            );
-
-                            // Construct a "should" clause for the above two clauses.
-                            BoolQueryBuilder combo = BoolQueryUtils.combineQueries(
-                                SHOULD,
-                                attributesExistsClause,
-                                parentResolverClause
-                            );
-
-                            parentResolverClauses.add(combo);
                         }
+                    }
 
-                        if (parentResolverClauses.size() > 1) {
-                            BoolQueryBuilder combo = BoolQueryUtils.combineQueries(FILTER, parentResolverClauses);
-                            parentResolversClauses.add(combo);
-                        } else if (parentResolverClauses.size() == 1) {
-                            parentResolversClauses.add(parentResolverClauses.get(0));
+                    if (parentResolverClauses.size() > 1) {
+                        BoolQueryBuilder combo = BoolQueryUtils.combineQueries(FILTER, parentResolverClauses);
+                        parentResolversClauses.add(combo);
+                    } else if (parentResolverClauses.size() == 1) {
+                        parentResolversClauses.add(parentResolverClauses.get(0));
+                    }
+                }
+
+                // Replace the resolvers clause of an incremental query with one that matches only what is new:
+                // either the resolvers match a new attribute value, or the resolvers match any known attribute
+                // values and a higher weight resolver matches a new attribute value.
+                if (incremental) {
+                    if (resolversClause != null && !incrementalParentResolverClauses.isEmpty()) {
+                        BoolQueryBuilder combo = BoolQueryUtils.combineQueries(FILTER, resolversClause);
+                        if (incrementalParentResolverClauses.size() > 1) {
+                            combo.filter(BoolQueryUtils.combineQueries(SHOULD, incrementalParentResolverClauses));
+                        } else {
+                            combo.filter(incrementalParentResolverClauses.get(0));
                         }
+                        resolversClause = incrementalResolversClause == null
+                            ? combo
+                            : BoolQueryUtils.combineQueries(SHOULD, incrementalResolversClause, combo);
+                    } else {
+                        resolversClause = incrementalResolversClause;
                     }
                 }
 
                 // Combine the resolvers clause and parent resolvers clause in a "filter" query if necessary.
-                if (parentResolversClauses.size() > 0) {
+                // An incremental query with nothing new to match has no resolvers clause.
+                if (parentResolversClauses.size() > 0 && !(incremental && resolversClause == null)) {
                     BoolQueryBuilder combo = BoolQueryUtils.combineQueries(FILTER, parentResolversClauses);
 
                     if (resolversClause != null) {
@@ -1061,10 +1183,7 @@ public class Job {
         // unlike structured attribute search where the attributes are assumed be known.
         if (canQueryTerms) {
             // Get the names of each attribute of each in-scope resolver.
-            Set<String> resolverAttributes = new TreeSet<>();
-            for (String resolverName : this.config.input.model().resolvers().keySet()) {
-                resolverAttributes.addAll(this.config.input.model().resolvers().get(resolverName).attributes());
-            }
+            Set<String> resolverAttributes = this.config.input.model().resolverAttributes();
 
             // For each attribute, attempt to convert each term to a value of that attribute.
             // If the term does not match the attribute type, or if the term cannot be converted to a value
@@ -1078,25 +1197,21 @@ public class Job {
             Map<String, Attribute> termAttributes = buildAttributeMap(termValues);
 
             // Determine which resolvers can be queried for this index using these attributes.
-            for (String resolverName : this.config.input.model().resolvers().keySet()) {
-                if (canQueryResolver(this.config.input.model(), indexName, resolverName, termAttributes)) {
-                    termResolvers.add(resolverName);
-                }
-            }
+            ResolutionPlan.Resolvers boundTermResolvers = plan.bind(termAttributes);
+            termResolvers.addAll(boundTermResolvers.names());
 
             // Construct the resolvers clause for term attribute values.
             QueryBuilder termResolversClause = null;
             if (termResolvers.size() > 0) {
-                Map<String, Integer> counts = countAttributesAcrossResolvers(this.config.input.model(), termResolvers);
-                List<List<String>> termResolversSorted = sortResolverAttributes(this.config.input.model(), termResolvers, counts);
-                termResolversFilterTree = makeResolversFilterTree(termResolversSorted, termResolversFilterTree);
+                termResolversFilterTree.putAll(boundTermResolvers.filterTree());
                 termResolversClause = buildResolversQuery(
+                    this.xContentRegistry,
                     this.config.input.model(),
                     indexName,
                     termResolversFilterTree,
                     termAttributes,
                     namedFilters,
-                    nameIdCounter
+                    namedQueries
                 );
             }
 
@@ -1111,6 +1226,11 @@ public class Job {
             }
         }
 
+        // There is nothing new for an incremental query to match.
+        if (incremental && resolversClause == null && idsQuery == null) {
+            return null;
+        }
+
         // Combine the ids clause and resolvers clause in a "should" clause if necessary.
         if (idsQuery != null && resolversClause != null) {
             BoolQueryBuilder combo = BoolQueryUtils.combineQueries(SHOULD, idsQuery, resolversClause);
@@ -1157,26 +1277,43 @@ public class Job {
         return queryBuilder;
     }
 
+    /**
+     * Get the value of a value node read from a hit. A value that was already read during the job is reused rather
+     * than built and validated again.
+     *
+     * @param attributeType The attribute type.
+     * @param valueNode     The value node.
+     * @return The value.
+     * @throws ValidationException If the value node is not a valid value of the attribute type.
+     */
+    private Value internValue(String attributeType, JsonNode valueNode) throws ValidationException {
+        Map<JsonNode, Value> values = this.valueDictionary.computeIfAbsent(attributeType, (type) -> new ConcurrentHashMap<>());
+        Value value = values.get(valueNode);
+        if (value == null) {
+            Value created = Value.create(attributeType, valueNode);
+            value = values.putIfAbsent(valueNode, created);
+            if (value == null) {
+                value = created;
+            }
+        }
+        return value;
+    }
+
     private void parseDocHitValue(
-        Map<String, Attribute> nextInputAttributes,
+        Map<String, Set<Value>> nextInputAttributes,
         Map<String, Set<Value>> docAttributes,
         String attributeName,
         String attributeType,
         JsonNode valueNode
     ) throws ValidationException {
-        Value value = Value.create(attributeType, valueNode);
-        if (!docAttributes.containsKey(attributeName)) {
-            docAttributes.put(attributeName, new TreeSet<>());
-        }
-        if (!nextInputAttributes.containsKey(attributeName)) {
-            nextInputAttributes.put(attributeName, new Attribute(attributeName, attributeType));
-        }
-        docAttributes.get(attributeName).add(value);
-        nextInputAttributes.get(attributeName).values().add(value);
+        Value value = internValue(attributeType, valueNode);
+        // Hash sets, since the values are only sorted when they're rendered or merged into the known attributes.
+        docAttributes.computeIfAbsent(attributeName, (name) -> new HashSet<>()).add(value);
+        nextInputAttributes.computeIfAbsent(attributeName, (name) -> new HashSet<>()).add(value);
     }
 
     private void parseDocHitArrayValue(
-        Map<String, Attribute> nextInputAttributes,
+        Map<String, Set<Value>> nextInputAttributes,
         Map<String, Set<Value>> docAttributes,
         String attributeName,
         String attributeType,
@@ -1192,10 +1329,24 @@ public class Job {
         }
     }
 
+    /**
+     * Get the value of a docvalue or script field of a hit. A docvalue field returns every value of a multi-valued
+     * field in ascending order, whereas the script fields only ever returned the first of them, so only the first
+     * value is used either way.
+     *
+     * @param hitField The docvalue or script field.
+     * @return The first value of the field.
+     */
+    static JsonNode formattedFieldValue(DocumentField hitField) {
+        return Json.ORDERED_MAPPER.valueToTree(hitField.getValue());
+    }
+
     private void parseDocHit(
-        JsonNode doc,
+        Map<String, DocumentField> hitFields,
+        JsonNode source,
         String indexName,
-        Map<String, Attribute> nextInputAttributes,
+        Set<String> formattedFields,
+        Map<String, Set<Value>> nextInputAttributes,
         Map<String, Set<Value>> docAttributes,
         Map<String, JsonNode> docIndexFields
     ) throws ValidationException {
@@ -1206,38 +1357,29 @@ public class Job {
             String attributeType = this.config.input.model().attributes().get(attributeName).type();
 
             // Get the attribute values from the doc.
-            if (doc.has("fields") && doc.get("fields").has(indexFieldName)) {
+            DocumentField hitField = formattedFields.contains(indexFieldName) ? hitFields.get(indexFieldName) : null;
+            if (hitField != null && !hitField.getValues().isEmpty()) {
                 // Get the attribute value from the "fields" field if it exists there.
                 // This would include 'date' attribute types, for example.
-                JsonNode valueNode = doc.get("fields").get(indexFieldName);
-                if (valueNode.isNull() || valueNode.isMissingNode()) {
-                    continue;
-                } else if (valueNode.isArray()) {
-                    parseDocHitArrayValue(nextInputAttributes, docAttributes, attributeName, attributeType, valueNode);
-                    if (valueNode.size() == 1) {
-                        docIndexFields.put(indexFieldName, valueNode.elements().next());
-                    } else {
-                        docIndexFields.put(indexFieldName, valueNode);
-                    }
-                } else {
-                    parseDocHitValue(nextInputAttributes, docAttributes, attributeName, attributeType, valueNode);
-                    docIndexFields.put(indexFieldName, valueNode);
-                }
+                JsonNode valueNode = formattedFieldValue(hitField);
+                parseDocHitValue(nextInputAttributes, docAttributes, attributeName, attributeType, valueNode);
+                docIndexFields.put(indexFieldName, valueNode);
             } else {
-                // TODO: these JsonPointers are the only thing holding us back from removing the manual JsonNode handling
-                //       and just using SearchHits.
                 // Get the attribute value from the "_source" field.
                 // The index field name might not refer to the _source property.
                 // If it's not in the _source, remove the last part of the index field name from the dot notation.
                 // Index field names can reference multi-fields, which are not returned in the _source.
                 // If the document does not contain a given index field, skip that field.
+                if (source == null) {
+                    continue;
+                }
                 IndexField indexField = this.config.input.model().indices().get(indexName).fields().get(indexFieldName);
-                JsonPointer path = indexField.path();
-                JsonPointer pathParent = indexField.pathParent();
-                JsonNode valueNode = doc.get("_source").at(path);
+                String[] path = indexField.path();
+                String[] pathParent = indexField.pathParent();
+                JsonNode valueNode = Json.at(source, path);
                 if (valueNode.isMissingNode()) {
                     if (pathParent != null) {
-                        valueNode = doc.get("_source").at(pathParent);
+                        valueNode = Json.at(source, pathParent);
                     } else {
                         continue;
                     }
@@ -1255,19 +1397,56 @@ public class Job {
         }
     }
 
+    /**
+     * Build the metadata of a hit in the same order that Elasticsearch renders it.
+     *
+     * @param hit             The search hit.
+     * @param hitFields       The fields of the hit.
+     * @param formattedFields The names of the requested docvalue and script fields, which are not metadata.
+     * @return The doc.
+     */
+    @SuppressWarnings("deprecation")
+    private static ObjectNode buildDocHit(SearchHit hit, Map<String, DocumentField> hitFields, Set<String> formattedFields) {
+        ObjectNode docObjNode = Json.ORDERED_MAPPER.createObjectNode();
+        docObjNode.put("_index", RemoteClusterAware.buildRemoteIndexName(hit.getClusterAlias(), hit.getIndex()));
+        // Types are deprecated, but "_type" is kept for compatibility with the responses that rendered the hit as is.
+        docObjNode.put("_type", hit.getType());
+        docObjNode.put("_id", hit.getId());
+        if (hit.getVersion() != -1) {
+            docObjNode.put("_version", hit.getVersion());
+        }
+        if (hit.getSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+            docObjNode.put("_seq_no", hit.getSeqNo());
+            docObjNode.put("_primary_term", hit.getPrimaryTerm());
+        }
+        for (DocumentField field : hitFields.values()) {
+            // ignore empty metadata fields
+            if (formattedFields.contains(field.getName()) || field.getValues().isEmpty()) {
+                continue;
+            }
+            // _ignored is the only multi-valued meta field
+            if (field.getName().equals(IgnoredFieldMapper.NAME)) {
+                docObjNode.set(field.getName(), Json.ORDERED_MAPPER.valueToTree(field.getValues()));
+            } else {
+                docObjNode.set(field.getName(), Json.ORDERED_MAPPER.valueToTree(field.getValue()));
+            }
+        }
+        return docObjNode;
+    }
+
     private void modifyDocMetadata(
         ObjectNode docObjNode,
-        String indexName,
+        RawJson rawSource,
+        String[] matchedQueries,
+        IndexSearch search,
         int hop,
-        int queryCount,
         boolean namedFilters,
         Map<String, Set<Value>> docAttributes,
         Map<String, JsonNode> docIndexFields
-    ) throws IOException {
-        docObjNode.remove("_score");
-        docObjNode.remove("fields");
+    ) {
         docObjNode.put("_hop", hop);
-        docObjNode.put("_query", queryCount);
+        // The query number is assigned once the results of the hop are merged.
+        docObjNode.putNull("_query");
         if (this.config.includeScore) {
             docObjNode.putNull("_score");
         }
@@ -1275,76 +1454,53 @@ public class Job {
             ObjectNode docAttributesObjNode = docObjNode.putObject("_attributes");
             for (String attributeName : docAttributes.keySet()) {
                 ArrayNode docAttributeArrNode = docAttributesObjNode.putArray(attributeName);
-                for (Value value : docAttributes.get(attributeName)) {
+                List<Value> values = new ArrayList<>(docAttributes.get(attributeName));
+                Collections.sort(values);
+                for (Value value : values) {
                     docAttributeArrNode.add(value.value());
                 }
             }
         }
 
         // Determine why any matching documents matched if including "_score" or "_explanation".
-        List<Double> bestAttributeIdentityConfidenceScores = new ArrayList<>();
-        if (namedFilters && docObjNode.has("matched_queries") && docObjNode.get("matched_queries").size() > 0) {
+        if (namedFilters && matchedQueries.length > 0) {
             ObjectNode docExpObjNode = docObjNode.putObject("_explanation");
             ObjectNode docExpResolversObjNode = docExpObjNode.putObject("resolvers");
             ArrayNode docExpMatchesArrNode = docExpObjNode.putArray("matches");
             Set<String> expAttributes = new TreeSet<>();
-            Set<String> matchedQueryNames = new TreeSet<>();
 
             // Create tuple-like objects that describe which attribute values matched which
             // index field values using which matchers and matcher parameters.
-            Map<String, List<Double>> attributeIdConfidenceBaseScores = new TreeMap<>();
-            for (JsonNode mqNode : docObjNode.get("matched_queries")) {
-                String serializedName = mqNode.asText();
-                QueryValue queryValue = QueryValue.deserialize(serializedName);
-                // skip duplicates
-                if (!matchedQueryNames.add(queryValue.genericName())) {
-                    continue;
-                }
+            // Each distinct match has a single name, so the matched queries have no duplicates.
+            // The best score of each attribute, by attribute ordinal.
+            double[] bestScores = search.bestScores;
+            Arrays.fill(bestScores, Double.NaN);
+            for (String name : matchedQueries) {
+                NamedQueries.NamedQuery namedQuery = search.namedQueries.get(name);
                 ObjectNode docExpDetailsObjNode = Json.ORDERED_MAPPER.createObjectNode();
 
-                String attributeName = queryValue.attributeName;
-                String indexFieldName = queryValue.indexFieldName;
-                String attributeValueSerialized = queryValue.serializedValue;
-                String attributeType = this.config.input.model().attributes().get(attributeName).type();
+                String attributeName = namedQuery.attributeName;
+                String indexFieldName = namedQuery.indexFieldName;
+                String matcherName = namedQuery.matcherName;
                 docExpDetailsObjNode.put("attribute", attributeName);
                 docExpDetailsObjNode.put("target_field", indexFieldName);
                 docExpDetailsObjNode.set("target_value", docIndexFields.get(indexFieldName));
-
-                if (attributeType.equals("string") || attributeType.equals("date")) {
-                    attributeValueSerialized = "\"" + attributeValueSerialized + "\"";
-                }
-                // TODO: manual json parsing + construction should be replaced
-                JsonNode attributeValueNode = Json.MAPPER.readValue(attributeValueSerialized, JsonNode.class);
-                docExpDetailsObjNode.set("input_value", attributeValueNode);
-
-                String matcherName = queryValue.matcherName;
-                String matcherParamsJson;
-                if (this.config.input.attributes().containsKey(attributeName)) {
-                    matcherParamsJson = Json.ORDERED_MAPPER.writeValueAsString(this.config.input.attributes().get(attributeName).params());
-                } else if (this.config.input.model().matchers().containsKey(matcherName)) {
-                    matcherParamsJson = Json.ORDERED_MAPPER.writeValueAsString(this.config.input.model().matchers().get(matcherName).params());
-                } else {
-                    matcherParamsJson = "{}";
-                }
-                JsonNode matcherParamsNode = Json.ORDERED_MAPPER.readTree(matcherParamsJson);
+                docExpDetailsObjNode.set("input_value", namedQuery.inputValue);
                 docExpDetailsObjNode.put("input_matcher", matcherName);
-                docExpDetailsObjNode.putPOJO("input_matcher_params", matcherParamsNode);
+                docExpDetailsObjNode.set("input_matcher_params", namedQuery.matcherParams);
 
-                // Calculate the attribute identity confidence score for this match.
-                Double attributeIdentityConfidenceScore = null;
+                // The attribute identity confidence score of this match was calculated with the entity model.
+                // Deconflict multiple scores for the same attribute by selecting the highest score.
                 if (this.config.includeScore) {
-                    attributeIdentityConfidenceScore = this.getAttributeIdentityConfidenceScore(attributeName, matcherName, indexName, indexFieldName);
-                    if (attributeIdentityConfidenceScore != null) {
-                        attributeIdConfidenceBaseScores.putIfAbsent(attributeName, new ArrayList<>());
-                        attributeIdConfidenceBaseScores.get(attributeName).add(attributeIdentityConfidenceScore);
-                    }
-                }
-
-                if (this.config.includeScore) {
-                    if (attributeIdentityConfidenceScore == null) {
+                    double score = namedQuery.score;
+                    if (Double.isNaN(score)) {
                         docExpDetailsObjNode.putNull("score");
                     } else {
-                        docExpDetailsObjNode.put("score", attributeIdentityConfidenceScore);
+                        docExpDetailsObjNode.put("score", score);
+                        double best = bestScores[namedQuery.attributeOrdinal];
+                        if (Double.isNaN(best) || score > best) {
+                            bestScores[namedQuery.attributeOrdinal] = score;
+                        }
                     }
                 }
 
@@ -1353,17 +1509,9 @@ public class Job {
             }
 
             if (this.config.includeScore) {
-
-                // Deconflict multiple attribute confidence scores for the same attribute
-                // by selecting the highest score.
-                for (String attributeName : attributeIdConfidenceBaseScores.keySet()) {
-                    Double best = Collections.max(attributeIdConfidenceBaseScores.get(attributeName));
-                    bestAttributeIdentityConfidenceScores.add(best);
-                }
-
                 // Combine the attribute confidence scores into a composite identity confidence score.
-                Double documentConfidenceScore = calculateCompositeIdentityConfidenceScore(bestAttributeIdentityConfidenceScores);
-                if (documentConfidenceScore != null) {
+                double documentConfidenceScore = calculateCompositeIdentityConfidenceScore(bestScores);
+                if (!Double.isNaN(documentConfidenceScore)) {
                     docObjNode.put("_score", documentConfidenceScore);
                 }
             }
@@ -1378,24 +1526,19 @@ public class Job {
                     }
                 }
             }
-            docObjNode.remove("matched_queries");
             if (!this.config.includeExplanation) {
                 docObjNode.remove("_explanation");
             }
         }
 
-        // Either remove "_source" or move "_source" under "_attributes".
-        if (!this.config.includeSource) {
-            docObjNode.remove("_source");
-        } else {
-            // TODO: this doesn't nest _source under _attributes?
-            JsonNode sourceNode = docObjNode.get("_source");
-            docObjNode.remove("_source");
-            docObjNode.set("_source", sourceNode);
+        // Include "_source" after "_attributes". The source is copied into the response as it was returned.
+        if (this.config.includeSource) {
+            if (rawSource == null) {
+                docObjNode.putNull("_source");
+            } else {
+                docObjNode.putRawValue("_source", rawSource.toRawValue());
+            }
         }
-
-        // Store doc in response.
-        this.hits.add(docObjNode);
     }
 
     private SearchRequestBuilder buildSearchRequest(String indexName) {
@@ -1404,7 +1547,7 @@ public class Job {
             .setFetchSource(true)
             .setIndices(indexName)
             .setFetchSource(true)
-            .setSize(this.config.maxDocsPerQuery)
+            .setSize(pageSize())
             .setProfile(this.config.profile)
             .seqNoAndPrimaryTerm(this.config.includeSeqNoPrimaryTerm)
             .setVersion(this.config.includeVersion);
@@ -1424,7 +1567,12 @@ public class Job {
         if (this.config.searchPreference != null) {
             searchReqBuilder.setPreference(this.config.searchPreference);
         }
-        if (this.config.searchRequestCache != null) {
+        if (this.config.paginate || this.config.seenDocsExclusion == SeenDocsExclusion.CLIENT) {
+            // Page through the hits in index order. The request cache can't be used in a scroll context.
+            searchReqBuilder
+                .setScroll(SCROLL_KEEP_ALIVE)
+                .addSort(FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC);
+        } else if (this.config.searchRequestCache != null) {
             searchReqBuilder.setRequestCache(this.config.searchRequestCache);
         }
         if (this.config.maxTimePerQuery != null) {
@@ -1434,6 +1582,127 @@ public class Job {
         return searchReqBuilder;
     }
 
+    /**
+     * Get the number of hits to request in each page of a search. Without pagination, a search has a single page of
+     * up to "max_docs_per_query" hits, unless it skips the fetched documents on the client.
+     *
+     * @return The page size.
+     */
+    private int pageSize() {
+        return this.config.paginate ? this.config.pageSize : this.config.maxDocsPerQuery;
+    }
+
+    /**
+     * Read the hits of a page of an index search, skipping any documents that were fetched in a prior query.
+     * Attribute values are collected into the search's own attributes so that concurrent searches don't share state.
+     * Without pagination, at most "max_docs_per_query" documents are read for each search.
+     *
+     * @param search       The index search.
+     * @param page         The page of the search response.
+     * @param hop          The current hop.
+     * @param namedFilters Whether the search used named filters.
+     * @return Whether every hit of the page was read.
+     */
+    private boolean readIndexSearchHits(IndexSearch search, SearchResponse page, int hop, boolean namedFilters) throws IOException, ValidationException {
+        for (SearchHit hit : page.getHits().getHits()) {
+            // Stop if the search has read as many docs as one query may return.
+            if (!this.config.paginate && search.docCount >= this.config.maxDocsPerQuery) {
+                return false;
+            }
+
+            // Skip doc if already fetched. Otherwise mark doc as fetched and then proceed.
+            if (!search.indexDocIds.add(hit.getId())) {
+                continue;
+            }
+            search.docCount++;
+
+            // Gather attributes from the doc. Store them in the "_attributes" field of the doc,
+            // and include them in the attributes for subsequent queries.
+            Map<String, Set<Value>> docAttributes = new TreeMap<>();
+            Map<String, JsonNode> docIndexFields = new TreeMap<>();
+            Map<String, DocumentField> hitFields = hit.getFields();
+            // The source is parsed once to read the attribute values, and its bytes are kept for the response.
+            RawJson rawSource = hit.getSourceRef() == null ? null : RawJson.of(hit.getSourceRef());
+            JsonNode source = rawSource == null ? null : Json.ORDERED_MAPPER.readTree(rawSource.asUnquotedUTF8());
+
+            parseDocHit(hitFields, source, search.indexName, search.formattedFields, search.nextInputAttributes, docAttributes, docIndexFields);
+
+            // Modify doc metadata.
+            if (config.includeHits) {
+                ObjectNode doc = buildDocHit(hit, hitFields, search.formattedFields);
+                modifyDocMetadata(
+                    doc,
+                    rawSource,
+                    hit.getMatchedQueries(),
+                    search,
+                    hop,
+                    namedFilters,
+                    docAttributes,
+                    docIndexFields
+                );
+                search.hits.add(doc);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read a page of an index search, then request and read the next page until the search has no more hits or,
+     * without pagination, has read "max_docs_per_query" unseen documents. Only searches that paginate or that skip
+     * the fetched documents on the client have more than one page. Each page is read as soon as it arrives and is
+     * not kept afterwards, except for the first page which is logged with the query.
+     *
+     * @param search       The index search.
+     * @param page         The page of the search response.
+     * @param hop          The current hop.
+     * @param namedFilters Whether the search used named filters.
+     * @return A future that completes when the last page has been read.
+     */
+    private CompletableFuture<Void> readIndexSearchPages(IndexSearch search, SearchResponse page, int hop, boolean namedFilters) {
+        if (search.response == null) {
+            search.response = page;
+        }
+        if (page.getScrollId() != null) {
+            search.scrollId = page.getScrollId();
+        }
+        search.partial = search.partial || page.isTimedOut() || page.getFailedShards() > 0;
+
+        boolean readAllHits;
+        try {
+            readAllHits = readIndexSearchHits(search, page, hop, namedFilters);
+        } catch (IOException | ValidationException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        boolean lastPage = page.getHits().getHits().length < pageSize();
+        if (lastPage || !readAllHits || search.scrollId == null) {
+            search.complete = lastPage && readAllHits && !search.partial && !search.canQueryTerms;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        SearchScrollRequestBuilder scrollReqBuilder = new SearchScrollRequestBuilder(client, SearchScrollAction.INSTANCE)
+            .setScrollId(search.scrollId)
+            .setScroll(SCROLL_KEEP_ALIVE);
+        return ActionRequestUtil
+            .toCompletableFuture(scrollReqBuilder, this.executor)
+            .thenCompose((nextPage) -> readIndexSearchPages(search, nextPage, hop, namedFilters));
+    }
+
+    /**
+     * Release the scroll context of an index search, if it has one. The scroll context expires on its own if
+     * this fails, so the response is not awaited.
+     *
+     * @param search The index search.
+     */
+    private void clearScroll(IndexSearch search) {
+        if (search.scrollId == null) {
+            return;
+        }
+        new ClearScrollRequestBuilder(client, ClearScrollAction.INSTANCE)
+            .addScrollId(search.scrollId)
+            .execute(ActionListener.wrap((res) -> { }, (ex) -> { }));
+    }
+
     /**
      * Given a set of attribute values, determine which queries to submit to which indices then submit them and recurse
      * asynchronously.
@@ -1444,36 +1713,28 @@ public class Job {
         final AtomicInteger maxHops = new AtomicInteger(this.config.maxHops <= -1 ? Integer.MAX_VALUE : this.config.maxHops);
         final AtomicBoolean namedFilters = new AtomicBoolean(this.config.includeExplanation || this.config.includeScore);
         final Set<String> missingIndices = Collections.synchronizedSet(new TreeSet<>());
-        final Map<String, Attribute> nextInputAttributes = Collections.synchronizedMap(new TreeMap<>());
-        final AtomicInteger queryCounter = new AtomicInteger(0);
-
-        final CompletableFuture<Void> emptyResultFut = CompletableFuture.completedFuture(null);
 
         final Predicate<Void> shouldContinuePred = (nil) -> newAttributeHits.get() && !(hop.get() > maxHops.get());
 
-        final CheckedFunction<String, CompletableFuture<Void>, IOException> runIndexSearch = (indexName) -> {
+        final CheckedFunction<String, IndexSearch, IOException> prepareIndexSearch = (indexName) -> {
             // Skip this index if a prior hop determined the index to be missing.
             if (missingIndices.contains(indexName)) {
-                return emptyResultFut;
+                return null;
             }
 
             // Track _ids for this index.
             if (!this.docIds.containsKey(indexName)) {
-                this.docIds.put(indexName, new TreeSet<>());
+                this.docIds.put(indexName, new DocIdSet());
             }
 
-            // "_explanation" uses named queries, and each value of the "_name" fields must be unique.
-            // Use a counter to prepend a unique and deterministic identifier for each "_name" field in the query.
-            AtomicInteger nameIdCounter = new AtomicInteger();
+            // "_explanation" uses named queries. Each query is named by its position in a table of the search,
+            // which holds the parts of its matches that don't depend on the hits.
+            NamedQueries namedQueries = new NamedQueries(this.config.input, indexName);
 
-            // Determine which resolvers can be queried for this index.
-            List<String> resolvers = new ArrayList<>();
-            Set<String> resolverNames = this.config.input.model().resolvers().keySet();
-            for (String resolverName : resolverNames) {
-                if (canQueryResolver(this.config.input.model(), indexName, resolverName, this.attributes)) {
-                    resolvers.add(resolverName);
-                }
-            }
+            // Determine which resolvers can be queried for this index. The plan of the index is compiled once per
+            // model and scope, so each hop only binds the attributes that have values.
+            ResolutionPlan plan = ResolutionPlan.of(this.config.input.model(), indexName);
+            ResolutionPlan.Resolvers resolvers = plan.bind(this.attributes);
 
             // Determine if we can query this index.
             boolean canQueryIds = hop.get() == 0
@@ -1483,13 +1744,23 @@ public class Job {
             boolean canQueryTerms = hop.get() == 0 &&
                 !this.config.input.terms().isEmpty();
 
-            if (resolvers.size() == 0 && !canQueryIds && !canQueryTerms) {
-                return emptyResultFut;
+            if (resolvers.isEmpty() && !canQueryIds && !canQueryTerms) {
+                return null;
             }
 
+            // Query only the new attribute values if the previous query of this index returned every document
+            // that it matched. Otherwise query all known attribute values so that no document is missed.
+            boolean incremental = this.config.incrementalHops
+                && hop.get() > 0
+                && !this.incompleteIndices.contains(indexName);
+
             final SearchRequestBuilder searchReqBuilder = buildSearchRequest(indexName);
+            Map<String, String> docValueFields = buildDocValueFields(indexName, this.config.input);
+            docValueFields.forEach(searchReqBuilder::addDocValueField);
             Map<String, Script> scripts = buildScriptFields(indexName, this.config.input);
             scripts.forEach(searchReqBuilder::addScriptField);
+            Set<String> formattedFields = new TreeSet<>(docValueFields.keySet());
+            formattedFields.addAll(scripts.keySet());
 
             final Map<Integer, FilterTree> resolversFilterTreeGrouped = new TreeMap<>(Collections.reverseOrder());
             // Construct query for this index.
@@ -1498,129 +1769,128 @@ public class Job {
 
             final QueryBuilder searchQuery = buildSearchQuery(
                 indexName,
+                incremental,
                 canQueryIds,
                 canQueryTerms,
+                plan,
                 resolvers,
-                nameIdCounter,
+                namedQueries,
                 namedFilters.get(),
                 resolversFilterTreeGrouped,
                 termResolvers,
                 termResolversFilterTree
             );
+            if (searchQuery == null) {
+                return null;
+            }
             searchReqBuilder.setQuery(searchQuery);
 
+            return new IndexSearch(
+                indexName,
+                canQueryTerms,
+                this.docIds.get(indexName),
+                formattedFields,
+                resolvers.names(),
+                searchReqBuilder,
+                resolversFilterTreeGrouped,
+                termResolvers,
+                termResolversFilterTree,
+                namedQueries
+            );
+        };
+
+        final Function<IndexSearch, CompletableFuture<IndexSearch>> runIndexSearch = (search) -> ActionRequestUtil
             // Submit query to Elasticsearch.
-            return ActionRequestUtil
-                .toCompletableFuture(searchReqBuilder, client.threadPool().executor(ThreadPool.Names.SEARCH))
-                .handle(UnCheckedBiFunction.from(
-                    (CheckedBiFunction<? super SearchResponse, Throwable, Void, ? extends Exception>)
-                    (response, throwable) -> {
-                    Throwable responseError = null;
-                    boolean fatalError = false;
-
-                    if (throwable != null) {
-                        Throwable cause = CompletableFutureUtil.getCause(throwable);
-
-                        if (cause instanceof IndexNotFoundException) {
-                            IndexNotFoundException idxEx = (IndexNotFoundException) cause;
-                            // Don't fail the job if an index was missing.
-                            missingIndices.add(idxEx.getIndex().getName());
-                            responseError = idxEx;
-                        } else {
-                            fatalError = true;
-                            responseError = cause;
-                        }
+            .toCompletableFuture(search.searchReqBuilder, this.executor)
+            .thenCompose((response) -> readIndexSearchPages(search, response, hop.get(), namedFilters.get()))
+            .handle((nil, throwable) -> {
+                clearScroll(search);
+
+                if (throwable != null) {
+                    Throwable cause = CompletableFutureUtil.getCause(throwable);
+
+                    if (cause instanceof IndexNotFoundException) {
+                        IndexNotFoundException idxEx = (IndexNotFoundException) cause;
+                        // Don't fail the job if an index was missing.
+                        missingIndices.add(idxEx.getIndex().getName());
+                        search.responseError = idxEx;
+                    } else {
+                        search.responseError = cause;
+                        search.fatalError = cause;
                     }
+                }
+                return search;
+            });
 
-                    // Log queries.
-                    if (config.includeQueries || config.profile) {
-                        LoggedQuery logged = buildLoggedQuery(
-                            config.input,
-                            hop.get(),
-                            queryCounter.get(),
-                            indexName,
-                            searchReqBuilder,
-                            response,
-                            responseError,
-                            resolvers,
-                            resolversFilterTreeGrouped,
-                            termResolvers,
-                            termResolversFilterTree
-                        );
-                        queries.add(logged);
-                    }
+        final CheckedFunction<List<IndexSearch>, Boolean, Exception> mergeIndexSearches = (searches) -> {
+            // Merge in the order of the model's indices so that the numbering of the queries and hits
+            // is the same regardless of the order in which the searches completed.
+            int queryCounter = 0;
+            boolean newHits = false;
+            this.newAttributes.clear();
+            for (IndexSearch search : searches) {
+                // Log queries.
+                if (config.includeQueries || config.profile) {
+                    LoggedQuery logged = buildLoggedQuery(
+                        config.input,
+                        hop.get(),
+                        queryCounter,
+                        search.indexName,
+                        search.searchReqBuilder,
+                        search.response,
+                        search.responseError,
+                        search.resolvers,
+                        search.resolversFilterTreeGrouped,
+                        search.termResolvers,
+                        search.termResolversFilterTree
+                    );
+                    queries.add(logged);
+                }
 
-                    // Stop traversing if there was an error not due to a missing index.
-                    if (fatalError) {
-                        throw (Exception) responseError;
-                    }
+                // Stop traversing if there was an error not due to a missing index.
+                if (search.fatalError != null) {
+                    throw (Exception) search.fatalError;
+                }
 
-                    // Read response from Elasticsearch.
-                    JsonNode responseData = null;
-                    if (response != null) {
-                        responseData = Json.ORDERED_MAPPER.readTree(response.toString());
-                    }
+                if (search.response == null) {
+                    continue;
+                }
 
-                    // Read the hits
-                    if (responseData == null) {
-                        return null;
-                    }
-                    if (!responseData.has("hits")) {
-                        return null;
-                    }
-                    if (!responseData.get("hits").has("hits")) {
-                        return null;
-                    }
+                // Track whether the search returned every document that matched the known attribute values.
+                if (search.complete) {
+                    this.incompleteIndices.remove(search.indexName);
+                } else {
+                    this.incompleteIndices.add(search.indexName);
+                }
 
-                    // TODO: don't parse response as JSON, use SearchHit from response.getHits().getHits()
-                    for (JsonNode doc : responseData.get("hits").get("hits")) {
-                        // Skip doc if already fetched. Otherwise mark doc as fetched and then proceed.
-                        String id = doc.get("_id").textValue();
-                        Set<String> indexDocIds = docIds.get(indexName);
-                        if (indexDocIds.contains(id)) {
-                            continue;
-                        }
-                        indexDocIds.add(id);
-
-                        // Gather attributes from the doc. Store them in the "_attributes" field of the doc,
-                        // and include them in the attributes for subsequent queries.
-                        Map<String, Set<Value>> docAttributes = new TreeMap<>();
-                        Map<String, JsonNode> docIndexFields = new TreeMap<>();
-
-                        parseDocHit(doc, indexName, nextInputAttributes, docAttributes, docIndexFields);
-
-                        // Modify doc metadata.
-                        if (config.includeHits) {
-                            modifyDocMetadata(
-                                (ObjectNode) doc,
-                                indexName,
-                                hop.get(),
-                                queryCounter.get(),
-                                namedFilters.get(),
-                                docAttributes,
-                                docIndexFields
-                            );
-                        }
-                    }
-                    queryCounter.incrementAndGet();
-                    return null;
-                }));
+                // Store docs in response.
+                for (ObjectNode doc : search.hits) {
+                    doc.put("_query", queryCounter);
+                    this.hits.add(doc);
+                }
+
+                // Update input attributes for the next queries.
+                newHits = updateInputAttributes(search.nextInputAttributes) || newHits;
+                queryCounter++;
+            }
+            return newHits;
         };
 
         final CheckedSupplier<CompletableFuture<Void>, IOException> runTraversal = () -> {
-            nextInputAttributes.clear();
-            queryCounter.set(0);
-
             /*
              * What's this loop doing?
              * For each of the model's indices:
              * - Track the ids
              * - find resolvers to use for the index
              * - construct a query for the index
+             * Then, running up to "max_concurrent_queries_per_hop" at once:
              * - run the query
-             * - log the query result
              * - deconstruct the response
              * - calculate explanations for hits
+             * Finally, for each search in index order:
+             * - log the query result
+             * - number and store the hits
+             * - collect the attributes for the next hop
              *
              * Early exits:
              * - searching an index already marked as missing
@@ -1631,19 +1901,22 @@ public class Job {
 
             // Construct a query for each index that maps to a resolver.
             Set<String> indices = this.config.input.model().indices().keySet();
-            CompletableFuture<Void> completeFut = CompletableFuture.completedFuture(null);
+            List<Supplier<CompletableFuture<IndexSearch>>> searchSuppliers = new ArrayList<>();
             for (String indexName : indices) {
-                completeFut = completeFut.thenCompose(UnCheckedFunction.from((res) -> runIndexSearch.apply(indexName)));
+                IndexSearch search = prepareIndexSearch.apply(indexName);
+                if (search != null) {
+                    searchSuppliers.add(() -> runIndexSearch.apply(search));
+                }
             }
 
-            return completeFut
-                .thenApply((nil) -> {
-                    // Update input attributes for the next queries.
-                    newAttributeHits.set(updateInputAttributes(nextInputAttributes));
+            return CompletableFutureUtil
+                .runParallel(searchSuppliers, this.config.maxConcurrentQueriesPerHop)
+                .thenApply(UnCheckedFunction.from((searches) -> {
+                    newAttributeHits.set(mergeIndexSearches.apply(searches));
                     // Update hop count.
                     hop.incrementAndGet();
                     return null;
-                });
+                }));
         };
 
         // Start timer and begin job
@@ -1692,6 +1965,62 @@ public class Job {
         return new Builder();
     }
 
+    /**
+     * The state of a single index search within a hop. The searches of a hop don't depend on each other,
+     * so they can run concurrently and then be merged in the order of the model's indices.
+     */
+    private static class IndexSearch {
+        private final String indexName;
+        private final boolean canQueryTerms;
+        private final DocIdSet indexDocIds;
+        private final Set<String> formattedFields;
+        private final List<String> resolvers;
+        private final SearchRequestBuilder searchReqBuilder;
+        private final Map<Integer, FilterTree> resolversFilterTreeGrouped;
+        private final List<String> termResolvers;
+        private final FilterTree termResolversFilterTree;
+        private final NamedQueries namedQueries;
+
+        // Scratch space for the best attribute scores of a hit. The hits of a search are read one at a time.
+        private final double[] bestScores;
+
+        // Results of the search
+        private final Map<String, Set<Value>> nextInputAttributes = new TreeMap<>();
+        private final List<ObjectNode> hits = new ArrayList<>();
+        private int docCount;
+        private boolean partial;
+        private boolean complete;
+        private String scrollId;
+        private SearchResponse response;
+        private Throwable responseError;
+        private Throwable fatalError;
+
+        private IndexSearch(
+            String indexName,
+            boolean canQueryTerms,
+            DocIdSet indexDocIds,
+            Set<String> formattedFields,
+            List<String> resolvers,
+            SearchRequestBuilder searchReqBuilder,
+            Map<Integer, FilterTree> resolversFilterTreeGrouped,
+            List<String> termResolvers,
+            FilterTree termResolversFilterTree,
+            NamedQueries namedQueries
+        ) {
+            this.indexName = indexName;
+            this.canQueryTerms = canQueryTerms;
+            this.indexDocIds = indexDocIds;
+            this.formattedFields = formattedFields;
+            this.resolvers = resolvers;
+            this.searchReqBuilder = searchReqBuilder;
+            this.resolversFilterTreeGrouped = resolversFilterTreeGrouped;
+            this.termResolvers = termResolvers;
+            this.termResolversFilterTree = termResolversFilterTree;
+            this.namedQueries = namedQueries;
+            this.bestScores = new double[namedQueries.attributeCount()];
+        }
+    }
+
     /**
      * All configuration options for the {@link Job}.
      */
@@ -1706,10 +2035,15 @@ public class Job {
         private boolean includeSeqNoPrimaryTerm = DEFAULT_INCLUDE_SEQ_NO_PRIMARY_TERM;
         private boolean includeSource = DEFAULT_INCLUDE_SOURCE;
         private boolean includeVersion = DEFAULT_INCLUDE_VERSION;
+        private boolean incrementalHops = DEFAULT_INCREMENTAL_HOPS;
+        private int maxConcurrentQueriesPerHop = DEFAULT_MAX_CONCURRENT_QUERIES_PER_HOP;
         private int maxDocsPerQuery = DEFAULT_MAX_DOCS_PER_QUERY;
         private int maxHops = DEFAULT_MAX_HOPS;
         private TimeValue maxTimePerQuery = DEFAULT_MAX_TIME_PER_QUERY;
+        private int pageSize = DEFAULT_PAGE_SIZE;
+        private boolean paginate = DEFAULT_PAGINATE;
         private boolean profile = DEFAULT_PROFILE;
+        private SeenDocsExclusion seenDocsExclusion = DEFAULT_SEEN_DOCS_EXCLUSION;
 
         // optional, nullable search parameters
         private Boolean searchAllowPartialSearchResults = null;
@@ -1725,6 +2059,8 @@ public class Job {
      */
     public static class Builder {
         private NodeClient client;
+        private Executor executor;
+        private NamedXContentRegistry xContentRegistry;
         private final JobConfig config = new JobConfig();
 
         public Builder includeAttributes(boolean includeAttributes) {
@@ -1772,6 +2108,16 @@ public class Job {
             return this;
         }
 
+        public Builder incrementalHops(boolean incrementalHops) {
+            this.config.incrementalHops = incrementalHops;
+            return this;
+        }
+
+        public Builder maxConcurrentQueriesPerHop(int maxConcurrentQueriesPerHop) {
+            this.config.maxConcurrentQueriesPerHop = maxConcurrentQueriesPerHop;
+            return this;
+        }
+
         public Builder maxDocsPerQuery(int maxDocsPerQuery) {
             this.config.maxDocsPerQuery = maxDocsPerQuery;
             return this;
@@ -1789,11 +2135,28 @@ public class Job {
             return this;
         }
 
+        public Builder pageSize(int pageSize) {
+            this.config.pageSize = pageSize;
+            return this;
+        }
+
+        public Builder paginate(boolean paginate) {
+            this.config.paginate = paginate;
+            return this;
+        }
+
         public Builder profile(Boolean profile) {
             this.config.profile = profile;
             return this;
         }
 
+        public Builder seenDocsExclusion(SeenDocsExclusion seenDocsExclusion) {
+            if (seenDocsExclusion != null) {
+                this.config.seenDocsExclusion = seenDocsExclusion;
+            }
+            return this;
+        }
+
         public Builder searchAllowPartialSearchResults(Boolean searchAllowPartialSearchResults) {
             this.config.searchAllowPartialSearchResults = searchAllowPartialSearchResults;
             return this;
@@ -1834,11 +2197,25 @@ public class Job {
             return this;
         }
 
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder xContentRegistry(NamedXContentRegistry xContentRegistry) {
+            this.xContentRegistry = xContentRegistry;
+            return this;
+        }
+
         public Job build() {
             if (this.client == null) {
                 throw new IllegalStateException("Must set client");
             }
-            return new Job(client, config);
+            Executor executor = this.executor == null ? client.threadPool().generic() : this.executor;
+            NamedXContentRegistry xContentRegistry = this.xContentRegistry == null
+                ? XContentUtil.defaultRegistry()
+                : this.xContentRegistry;
+            return new Job(client, executor, xContentRegistry, config);
         }
     }
 }
@@ -4,12 +4,10 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
-import io.zentity.common.FunctionalUtil.UnCheckedUnaryOperator;
 import io.zentity.common.XContentUtil;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentParseException;
 import org.elasticsearch.rest.RestStatus;
 
@@ -65,17 +63,8 @@ public class LoggedSearch {
                 gen.writeNumberField("status", esEx.status().getStatus());
 
                 gen.writeArrayFieldStart("root_cause");
-                String rawCause = XContentUtil.serialize(
-                    XContentUtil.jsonBuilder(
-                        UnCheckedUnaryOperator.from((builder) -> {
-                            builder.startObject();
-                            esEx.toXContent(builder, ToXContent.EMPTY_PARAMS);
-                            builder.endObject();
-                            return builder;
-                        })
-                    )
-                );
-                gen.writeRawValue(rawCause);
+                // the exception is a fragment, which is wrapped in an object
+                gen.writeRawValue(XContentUtil.serializeAsRawJSON(esEx));
                 gen.writeEndArray();
             } else {
                 String type = ex.getClass().getCanonicalName();
@@ -99,7 +88,7 @@ public class LoggedSearch {
             gen.writeStartObject();
 
             gen.writeFieldName("request");
-            gen.writeRawValue(XContentUtil.serializeAsJSON(value.searchRequest.request().source()));
+            gen.writeRawValue(XContentUtil.serializeAsRawJSON(value.searchRequest.request().source()));
 
             // write the response, either the error or the real response
             gen.writeFieldName("response");
@@ -112,7 +101,7 @@ public class LoggedSearch {
 
                 gen.writeEndObject();
             } else {
-                gen.writeRawValue(XContentUtil.serializeAsJSON(value.response));
+                gen.writeRawValue(XContentUtil.serializeAsRawJSON(value.response));
             }
 
             gen.writeEndObject();
@@ -0,0 +1,166 @@
+package io.zentity.resolution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.zentity.common.Json;
+import io.zentity.model.Matcher;
+import io.zentity.resolution.input.Attribute;
+import io.zentity.resolution.input.Input;
+import io.zentity.resolution.input.value.Value;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The named queries of a search, which tell "_explanation" and "_score" which attribute values matched a hit.
+ *
+ * <p>
+ * Each distinct combination of an attribute, index field, matcher and value is named by its position in the table,
+ * so the names add little to the search, and the "matched_queries" of a hit resolve to their matches with a lookup.
+ * The parts of a match that don't depend on the hit are built once when the query is named. Identical clauses share a
+ * name, since they match the same documents. Not thread-safe while the search is built, read-only afterwards.
+ */
+public class NamedQueries {
+
+    private final Input input;
+    private final String indexName;
+    private final List<NamedQuery> queries = new ArrayList<>();
+    private final Map<List<Object>, String> names = new HashMap<>();
+
+    /**
+     * @param input     The input of the job, which determines the matcher params of each match.
+     * @param indexName The name of the index of the search.
+     */
+    public NamedQueries(Input input, String indexName) {
+        this.input = input;
+        this.indexName = indexName;
+    }
+
+    /**
+     * Get the name of the clause of an attribute value, naming it if it wasn't named before.
+     *
+     * @param attributeName  The attribute name.
+     * @param indexFieldName The index field name.
+     * @param matcherName    The matcher name.
+     * @param value          The attribute value.
+     * @return The name.
+     * @throws IOException If the value cannot be read as JSON.
+     */
+    public String name(String attributeName, String indexFieldName, String matcherName, Value value) throws IOException {
+        List<Object> key = List.of(attributeName, indexFieldName, matcherName, value);
+        String name = this.names.get(key);
+        if (name == null) {
+            name = Integer.toString(this.queries.size());
+            Double score = this.input.model().indexFieldScore(this.indexName, indexFieldName);
+            this.queries.add(new NamedQuery(
+                attributeName,
+                this.input.model().attributeOrdinal(attributeName),
+                indexFieldName,
+                matcherName,
+                inputValue(attributeName, value),
+                matcherParams(attributeName, matcherName),
+                score == null ? Double.NaN : score
+            ));
+            this.names.put(key, name);
+        }
+        return name;
+    }
+
+    /**
+     * Get a named query by its name.
+     *
+     * @param name The name.
+     * @return The named query.
+     * @throws IllegalArgumentException If the name is not in the table.
+     */
+    public NamedQuery get(String name) {
+        int id;
+        try {
+            id = Integer.parseInt(name);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown named query: " + name);
+        }
+        if (id < 0 || id >= this.queries.size()) {
+            throw new IllegalArgumentException("Unknown named query: " + name);
+        }
+        return this.queries.get(id);
+    }
+
+    public int size() {
+        return this.queries.size();
+    }
+
+    /**
+     * Get the number of attributes of the entity model, which bounds the attribute ordinals of the named queries.
+     *
+     * @return The number of attributes.
+     */
+    public int attributeCount() {
+        return this.input.model().attributes().size();
+    }
+
+    /**
+     * Render the value as it appears in "input_value", which is the serialized value, as opposed to the node that the
+     * value was read from.
+     */
+    private JsonNode inputValue(String attributeName, Value value) throws IOException {
+        String attributeType = this.input.model().attributes().get(attributeName).type();
+        if (attributeType.equals("string") || attributeType.equals("date")) {
+            return TextNode.valueOf(value.serialized());
+        }
+        return Json.MAPPER.readTree(value.serialized());
+    }
+
+    /**
+     * Render the "input_matcher_params", which are the params of the input attribute if it was given, or else the
+     * params of the matcher.
+     */
+    private JsonNode matcherParams(String attributeName, String matcherName) {
+        Map<String, String> params = Collections.emptyMap();
+        Attribute inputAttribute = this.input.attributes().get(attributeName);
+        Matcher matcher = this.input.model().matchers().get(matcherName);
+        if (inputAttribute != null) {
+            params = inputAttribute.params();
+        } else if (matcher != null) {
+            params = matcher.params();
+        }
+        return Json.ORDERED_MAPPER.valueToTree(params);
+    }
+
+    /**
+     * The parts of a match in "_explanation" and "_score" that don't depend on the hit.
+     */
+    public static class NamedQuery {
+        public final String attributeName;
+        public final int attributeOrdinal;
+        public final String indexFieldName;
+        public final String matcherName;
+        public final JsonNode inputValue;
+        public final JsonNode matcherParams;
+
+        // The attribute identity confidence score of the match, or NaN if there is none.
+        public final double score;
+
+        private NamedQuery(
+            String attributeName,
+            int attributeOrdinal,
+            String indexFieldName,
+            String matcherName,
+            JsonNode inputValue,
+            JsonNode matcherParams,
+            double score
+        ) {
+            this.attributeName = attributeName;
+            this.attributeOrdinal = attributeOrdinal;
+            this.indexFieldName = indexFieldName;
+            this.matcherName = matcherName;
+            this.inputValue = inputValue;
+            this.matcherParams = matcherParams;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package io.zentity.resolution;
+
+import io.zentity.model.Index;
+import io.zentity.model.IndexField;
+import io.zentity.model.Model;
+import io.zentity.model.Resolver;
+import io.zentity.resolution.input.Attribute;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.ExistsQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.zentity.resolution.BoolQueryUtils.BoolQueryCombiner.SHOULD;
+
+/**
+ * The parts of the queries of an index that depend only on the entity model and the resolvers in scope: which
+ * resolvers can query the index, how they are grouped into weight levels, and their filter trees.
+ *
+ * <p>
+ * A plan is compiled once per entity model, index, and set of resolvers in scope, and is shared by the jobs of every
+ * request that uses the same cached model. Each hop only binds the attributes that have values, which selects the
+ * resolvers that can be queried, and the weight levels and filter trees of each selection are also built only once.
+ * Plans are dropped when their model is no longer used, such as when the model cache replaces it with a new version.
+ * Thread-safe.
+ */
+public class ResolutionPlan {
+
+    // Scopes and selections of resolvers are bounded by the model, but the caches are cleared rather than allowed to
+    // grow without a limit in case of models with many resolvers.
+    private static final int MAX_SIZE = 1000;
+    private static final Map<Model, Map<List<Object>, ResolutionPlan>> PLANS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // The resolvers that can query the index, in the order of the entity model. A plan must not refer to the entity
+    // model, which is the weak key of its cache.
+    private final Map<String, Resolver> resolvers;
+    private final List<String> resolverNames;
+    private final Map<String, FilterTree> resolverFilterTrees;
+    private final Map<String, QueryBuilder> resolverNotExistsClauses;
+    private final Map<BitSet, Resolvers> selections = new ConcurrentHashMap<>();
+
+    ResolutionPlan(Model model, String indexName) {
+        Map<String, Resolver> resolvers = new TreeMap<>();
+        Index index = model.indices().get(indexName);
+        for (Resolver resolver : model.resolvers().values()) {
+            if (canQueryResolver(model, index, resolver)) {
+                resolvers.put(resolver.name(), resolver);
+            }
+        }
+        this.resolvers = Collections.unmodifiableMap(resolvers);
+        this.resolverNames = List.copyOf(resolvers.keySet());
+
+        // The filter tree of each resolver by itself, and a clause that matches the documents that don't have all its
+        // attributes, which lower weight levels use to check that the resolver either matches or doesn't exist.
+        Map<String, FilterTree> resolverFilterTrees = new TreeMap<>();
+        Map<String, QueryBuilder> resolverNotExistsClauses = new TreeMap<>();
+        for (String resolverName : this.resolverNames) {
+            List<String> resolverGroup = Collections.singletonList(resolverName);
+            Map<String, Integer> counts = Job.countAttributesAcrossResolvers(this.resolvers, resolverGroup);
+            resolverFilterTrees.put(resolverName, Job.makeResolversFilterTree(Job.sortResolverAttributes(this.resolvers, resolverGroup, counts)));
+            List<QueryBuilder> attributeExistsClauses = new ArrayList<>();
+            for (String attributeName : this.resolvers.get(resolverName).attributes()) {
+                BoolQueryBuilder notExistsClause = new BoolQueryBuilder();
+                notExistsClause.mustNot(new ExistsQueryBuilder(attributeName));
+                attributeExistsClauses.add(notExistsClause);
+            }
+            if (attributeExistsClauses.size() > 1) {
+                resolverNotExistsClauses.put(resolverName, BoolQueryUtils.combineQueries(SHOULD, attributeExistsClauses));
+            } else if (attributeExistsClauses.size() == 1) {
+                resolverNotExistsClauses.put(resolverName, attributeExistsClauses.get(0));
+            }
+        }
+        this.resolverFilterTrees = Collections.unmodifiableMap(resolverFilterTrees);
+        this.resolverNotExistsClauses = Collections.unmodifiableMap(resolverNotExistsClauses);
+    }
+
+    /**
+     * Get the plan of an index for the resolvers in the scope of an entity model, compiling it if no job compiled it
+     * before.
+     *
+     * @param model     The entity model, or a view of it.
+     * @param indexName The name of the index.
+     * @return The plan.
+     */
+    public static ResolutionPlan of(Model model, String indexName) {
+        Map<List<Object>, ResolutionPlan> plans = PLANS.computeIfAbsent(model.base(), (base) -> new ConcurrentHashMap<>());
+        List<Object> key = List.of(indexName, List.copyOf(model.resolvers().keySet()));
+        ResolutionPlan plan = plans.get(key);
+        if (plan == null) {
+            plan = new ResolutionPlan(model, indexName);
+            if (plans.size() >= MAX_SIZE) {
+                plans.clear();
+            }
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Determine if a resolver can query an index regardless of the input. Each attribute of the resolver must be
+     * mapped to a field of the index that has a matcher defined for it.
+     */
+    private static boolean canQueryResolver(Model model, Index index, Resolver resolver) {
+        for (String attributeName : resolver.attributes()) {
+            Map<String, IndexField> indexFields = index.attributeIndexFieldsMap().get(attributeName);
+            if (indexFields == null) {
+                return false;
+            }
+            boolean hasMatcher = false;
+            for (IndexField indexField : indexFields.values()) {
+                if (indexField.matcher() != null && model.matchers().get(indexField.matcher()) != null) {
+                    hasMatcher = true;
+                    break;
+                }
+            }
+            if (!hasMatcher) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the names of the resolvers that can query the index if the input has values for their attributes.
+     *
+     * @return The names of the resolvers.
+     */
+    public List<String> resolverNames() {
+        return this.resolverNames;
+    }
+
+    /**
+     * Select the resolvers that can query the index with the values of the attributes. Every attribute of a selected
+     * resolver has at least one value.
+     *
+     * @param attributes The values of the attributes.
+     * @return The selected resolvers.
+     */
+    public Resolvers bind(Map<String, Attribute> attributes) {
+        BitSet selection = new BitSet(this.resolverNames.size());
+        for (int i = 0; i < this.resolverNames.size(); i++) {
+            boolean hasValues = true;
+            for (String attributeName : this.resolvers.get(this.resolverNames.get(i)).attributes()) {
+                Attribute attribute = attributes.get(attributeName);
+                if (attribute == null || attribute.values().isEmpty()) {
+                    hasValues = false;
+                    break;
+                }
+            }
+            if (hasValues) {
+                selection.set(i);
+            }
+        }
+        Resolvers resolvers = this.selections.get(selection);
+        if (resolvers == null) {
+            List<String> names = new ArrayList<>();
+            selection.stream().forEach((i) -> names.add(this.resolverNames.get(i)));
+            resolvers = new Resolvers(this, names);
+            if (this.selections.size() >= MAX_SIZE) {
+                this.selections.clear();
+            }
+            this.selections.put(selection, resolvers);
+        }
+        return resolvers;
+    }
+
+    /**
+     * A selection of the resolvers of a plan, with their weight levels and filter trees.
+     */
+    public static class Resolvers {
+
+        private final ResolutionPlan plan;
+        private final List<String> names;
+        private final FilterTree filterTree;
+        private final List<List<String>> levels;
+        private final List<FilterTree> levelFilterTrees;
+
+        private Resolvers(ResolutionPlan plan, List<String> names) {
+            this.plan = plan;
+            this.names = Collections.unmodifiableList(names);
+            this.filterTree = Job.makeResolversFilterTree(Job.sortResolverAttributes(
+                plan.resolvers,
+                names,
+                Job.countAttributesAcrossResolvers(plan.resolvers, names)
+            ));
+
+            // Order the weight levels in descending order of weight.
+            Map<Integer, List<String>> resolverGroups = Job.groupResolversByWeight(plan.resolvers, names);
+            List<List<String>> levels = new ArrayList<>();
+            List<FilterTree> levelFilterTrees = new ArrayList<>();
+            for (List<String> resolversGroup : resolverGroups.values()) {
+                Map<String, Integer> counts = Job.countAttributesAcrossResolvers(plan.resolvers, resolversGroup);
+                levels.add(0, Collections.unmodifiableList(resolversGroup));
+                levelFilterTrees.add(0, Job.makeResolversFilterTree(Job.sortResolverAttributes(plan.resolvers, resolversGroup, counts)));
+            }
+            this.levels = Collections.unmodifiableList(levels);
+            this.levelFilterTrees = Collections.unmodifiableList(levelFilterTrees);
+        }
+
+        public List<String> names() {
+            return this.names;
+        }
+
+        public boolean isEmpty() {
+            return this.names.isEmpty();
+        }
+
+        /**
+         * Get the filter tree of all the selected resolvers regardless of their weights.
+         *
+         * @return The filter tree.
+         */
+        public FilterTree filterTree() {
+            return this.filterTree;
+        }
+
+        /**
+         * Get the names of the resolvers of each weight level in descending order of weight.
+         *
+         * @return The weight levels.
+         */
+        public List<List<String>> levels() {
+            return this.levels;
+        }
+
+        /**
+         * Get the filter tree of the resolvers of a weight level.
+         *
+         * @param level The position of the weight level in {@link #levels()}.
+         * @return The filter tree.
+         */
+        public FilterTree levelFilterTree(int level) {
+            return this.levelFilterTrees.get(level);
+        }
+
+        /**
+         * Get the filter tree of a selected resolver by itself.
+         *
+         * @param resolverName The name of the resolver.
+         * @return The filter tree.
+         */
+        public FilterTree resolverFilterTree(String resolverName) {
+            return this.plan.resolverFilterTrees.get(resolverName);
+        }
+
+        /**
+         * Get a clause that matches the documents that don't have every attribute of a selected resolver.
+         *
+         * @param resolverName The name of the resolver.
+         * @return The clause, or null if the resolver has no attributes.
+         */
+        public QueryBuilder resolverNotExistsClause(String resolverName) {
+            return this.plan.resolverNotExistsClauses.get(resolverName);
+        }
+    }
+}
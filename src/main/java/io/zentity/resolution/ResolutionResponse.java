@@ -75,6 +75,14 @@ public class ResolutionResponse {
         @Override
         public void serialize(ResolutionResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
             gen.writeStartObject();
+            serializeFields(value, gen, provider);
+            gen.writeEndObject();
+        }
+
+        /**
+         * Write the fields of a response into the current object, so that they can be embedded in other objects.
+         */
+        static void serializeFields(ResolutionResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
             // encode 'took' in ms
             gen.writeFieldName("took");
             gen.writeNumber(value.took.toMillis());
@@ -102,8 +110,6 @@ public class ResolutionResponse {
                 gen.writeFieldName("error");
                 serializeException(value.error, value.includeStackTrace, gen);
             }
-
-            gen.writeEndObject();
         }
     }
 }
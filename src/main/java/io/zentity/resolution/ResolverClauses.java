@@ -0,0 +1,198 @@
+package io.zentity.resolution;
+
+import io.zentity.model.Model;
+import io.zentity.model.ValidationException;
+import io.zentity.resolution.input.Attribute;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.zentity.resolution.BoolQueryUtils.BoolQueryCombiner.FILTER;
+import static io.zentity.resolution.BoolQueryUtils.BoolQueryCombiner.SHOULD;
+
+/**
+ * The resolver clauses of one search, which match the known or new attribute values of the filter trees of its
+ * resolvers.
+ *
+ * <p>
+ * The same attributes appear along many paths of a filter tree, and the same filter trees appear at many weight
+ * levels, so each clause of an attribute and each clause of a filter tree is built once and shared by every part of
+ * the query that uses it. Filter trees are matched by identity, which holds for the trees of a
+ * {@link ResolutionPlan}. Not thread-safe.
+ */
+public class ResolverClauses {
+
+    private final NamedXContentRegistry registry;
+    private final Model model;
+    private final String indexName;
+    private final Map<String, Attribute> attributes;
+    private final Map<String, Attribute> newAttributes;
+    private final boolean namedFilters;
+    private final NamedQueries namedQueries;
+
+    // Null clauses are memoized too, so the maps are checked with containsKey.
+    private final Map<String, QueryBuilder> attributeClauses = new HashMap<>();
+    private final Map<String, QueryBuilder> newAttributeClauses = new HashMap<>();
+    private final Map<FilterTree, QueryBuilder> resolversClauses = new IdentityHashMap<>();
+    private final Map<FilterTree, QueryBuilder> incrementalResolversClauses = new IdentityHashMap<>();
+
+    /**
+     * @param registry      The registry of the query parsers.
+     * @param model         The entity model.
+     * @param indexName     The name of the index to reference in the entity model.
+     * @param attributes    All known values of the attributes.
+     * @param newAttributes The values of the attributes that are new since the previous hop.
+     * @param namedFilters  Whether to name the matcher clauses for "_explanation" and "_score".
+     * @param namedQueries  The named queries of the search.
+     */
+    public ResolverClauses(
+        NamedXContentRegistry registry,
+        Model model,
+        String indexName,
+        Map<String, Attribute> attributes,
+        Map<String, Attribute> newAttributes,
+        boolean namedFilters,
+        NamedQueries namedQueries
+    ) {
+        this.registry = registry;
+        this.model = model;
+        this.indexName = indexName;
+        this.attributes = attributes;
+        this.newAttributes = newAttributes;
+        this.namedFilters = namedFilters;
+        this.namedQueries = namedQueries;
+    }
+
+    /**
+     * Construct a clause that matches the known attribute values of the resolvers of a filter tree.
+     *
+     * @param resolversFilterTree The filter tree of the resolvers.
+     * @return The clause, or null if no attribute of the tree has values to match.
+     */
+    public QueryBuilder resolversQuery(FilterTree resolversFilterTree) throws ValidationException, IOException {
+        if (this.resolversClauses.containsKey(resolversFilterTree)) {
+            return this.resolversClauses.get(resolversFilterTree);
+        }
+
+        // Construct a "filter" clause for each attribute at this level of the filter tree.
+        List<QueryBuilder> clauses = new ArrayList<>();
+        for (String attributeName : resolversFilterTree.keySet()) {
+            QueryBuilder indexFieldsClause = attributeQuery(attributeName, false);
+            if (indexFieldsClause == null) {
+                continue;
+            }
+
+            // Populate any child filters.
+            QueryBuilder filter = resolversQuery(resolversFilterTree.get(attributeName));
+            if (filter != null) {
+                BoolQueryBuilder combo = BoolQueryUtils.combineQueries(FILTER, indexFieldsClause, filter);
+                clauses.add(combo);
+            } else {
+                clauses.add(indexFieldsClause);
+            }
+        }
+
+        // Combine each attribute clause into a single "should" clause.
+        QueryBuilder clause = combine(clauses);
+        this.resolversClauses.put(resolversFilterTree, clause);
+        return clause;
+    }
+
+    /**
+     * Construct the same clause as {@link #resolversQuery}, except that each matching document must match at least
+     * one of the new attribute values. Each attribute along a path of the filter tree matches either its new values,
+     * in which case the rest of the path matches any known values, or any of its known values, in which case a new
+     * value must match further down the path. This keeps multi-attribute resolvers correct when only some of their
+     * attributes have new values.
+     *
+     * @param resolversFilterTree The filter tree of the resolvers.
+     * @return The clause, or null if no new value can match.
+     */
+    public QueryBuilder incrementalResolversQuery(FilterTree resolversFilterTree) throws ValidationException, IOException {
+        if (this.incrementalResolversClauses.containsKey(resolversFilterTree)) {
+            return this.incrementalResolversClauses.get(resolversFilterTree);
+        }
+
+        List<QueryBuilder> clauses = new ArrayList<>();
+        for (String attributeName : resolversFilterTree.keySet()) {
+            FilterTree children = resolversFilterTree.get(attributeName);
+            List<QueryBuilder> pathClauses = new ArrayList<>();
+
+            // Match a new value of this attribute and any known values of the rest of the path.
+            if (this.newAttributes.containsKey(attributeName)) {
+                QueryBuilder newValuesClause = attributeQuery(attributeName, true);
+                if (newValuesClause != null) {
+                    QueryBuilder filter = resolversQuery(children);
+                    pathClauses.add(filter == null ? newValuesClause : BoolQueryUtils.combineQueries(FILTER, newValuesClause, filter));
+                }
+            }
+
+            // Match any known value of this attribute and a new value further down the path.
+            QueryBuilder incrementalFilter = incrementalResolversQuery(children);
+            if (incrementalFilter != null) {
+                QueryBuilder valuesClause = attributeQuery(attributeName, false);
+                if (valuesClause != null) {
+                    pathClauses.add(BoolQueryUtils.combineQueries(FILTER, valuesClause, incrementalFilter));
+                }
+            }
+
+            if (pathClauses.size() > 1) {
+                clauses.add(BoolQueryUtils.combineQueries(SHOULD, pathClauses));
+            } else if (pathClauses.size() == 1) {
+                clauses.add(pathClauses.get(0));
+            }
+        }
+
+        // Combine each attribute clause into a single "should" clause.
+        QueryBuilder clause = combine(clauses);
+        this.incrementalResolversClauses.put(resolversFilterTree, clause);
+        return clause;
+    }
+
+    /**
+     * Construct a "should" clause that matches any known or new value of an attribute in any index field mapped to
+     * the attribute.
+     *
+     * @return The clause, or null if the attribute has no values to match.
+     */
+    private QueryBuilder attributeQuery(String attributeName, boolean newValues) throws ValidationException, IOException {
+        Map<String, QueryBuilder> memo = newValues ? this.newAttributeClauses : this.attributeClauses;
+        if (memo.containsKey(attributeName)) {
+            return memo.get(attributeName);
+        }
+
+        // Construct a "should" clause for each index field mapped to this attribute.
+        List<QueryBuilder> indexFieldClauses = Job.buildIndexFieldQueries(
+            this.registry,
+            this.model,
+            this.indexName,
+            newValues ? this.newAttributes : this.attributes,
+            attributeName,
+            SHOULD,
+            this.namedFilters,
+            this.namedQueries
+        );
+
+        // Combine multiple matcher clauses into a single "should" clause.
+        QueryBuilder clause = combine(indexFieldClauses);
+        memo.put(attributeName, clause);
+        return clause;
+    }
+
+    private static QueryBuilder combine(List<QueryBuilder> clauses) {
+        int size = clauses.size();
+        if (size > 1) {
+            return BoolQueryUtils.combineQueries(SHOULD, clauses);
+        } else if (size == 1) {
+            return clauses.get(0);
+        }
+        return null;
+    }
+}
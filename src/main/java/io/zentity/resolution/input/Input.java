@@ -37,91 +37,6 @@ public class Input {
         this.deserialize(json);
     }
 
-    /**
-     * Exclude indices from an entity model, while retaining all the others.
-     *
-     * @param model   The entity model.
-     * @param indices Names of indices from "scope.exclude.indices" to exclude in the entity model.
-     * @return Updated entity model.
-     * @throws ValidationException
-     */
-    private static Model excludeIndices(Model model, Set<String> indices) throws ValidationException {
-        if (!indices.isEmpty()) {
-            for (String index : indices) {
-                if (index == null || index.equals(""))
-                    continue;
-                if (!model.indices().containsKey(index))
-                    throw new ValidationException("'" + index + "' is not in the 'indices' field of the entity model.");
-                model.indices().remove(index);
-            }
-        }
-        return model;
-    }
-
-    /**
-     * Include indices in an entity model, while excluding all the others.
-     *
-     * @param model   The entity model.
-     * @param indices Names of indices from "scope.include.indices" to include in the entity model.
-     * @return Updated entity model.
-     * @throws ValidationException
-     */
-    public static Model includeIndices(Model model, Set<String> indices) throws ValidationException {
-        if (!indices.isEmpty()) {
-            for (String index : indices) {
-                if (index == null || index.equals(""))
-                    continue;
-                if (!model.indices().containsKey(index))
-                    throw new ValidationException("'" + index + "' is not in the 'indices' field of the entity model.");
-            }
-            model.indices().keySet().retainAll(indices);
-        }
-        return model;
-    }
-
-    /**
-     * Exclude resolvers from an entity model, while retaining all the others.
-     *
-     * @param model     The entity model.
-     * @param resolvers Names of resolvers from "scope.exclude.resolvers" to exclude in the entity model.
-     * @return Updated entity model.
-     * @throws ValidationException
-     */
-    private static Model excludeResolvers(Model model, Set<String> resolvers) throws ValidationException {
-        if (!resolvers.isEmpty()) {
-            for (String resolver : resolvers) {
-                if (resolver == null || resolver.equals(""))
-                    continue;
-                if (!model.resolvers().containsKey(resolver))
-                    throw new ValidationException("'" + resolver + "' is not in the 'resolvers' field of the entity model.");
-                model.resolvers().remove(resolver);
-            }
-        }
-        return model;
-    }
-
-    /**
-     * Include resolvers in an entity model, while excluding all the others.
-     *
-     * @param model     The entity model.
-     * @param resolvers Names of resolvers from "scope.include.resolvers" to include in the entity model.
-     * @return Updated entity model.
-     */
-    public static Model includeResolvers(Model model, Set<String> resolvers) {
-        if (!resolvers.isEmpty()) {
-            for (String resolver : resolvers) {
-                if (resolver == null || resolver.equals("")) {
-                    continue;
-                }
-                if (!model.resolvers().containsKey(resolver)) {
-                    throw new ValidationException("'" + resolver + "' is not in the 'resolvers' field of the entity model.");
-                }
-            }
-            model.resolvers().keySet().retainAll(resolvers);
-        }
-        return model;
-    }
-
     /**
      * Parse and validate the "ids" field of the request body.
      *
@@ -322,12 +237,12 @@ public class Input {
 
                 // Remove any resolvers of the entity model that do not appear in "scope.include.resolvers".
                 if (!this.scope.include().resolvers().isEmpty()) {
-                    this.model = includeResolvers(this.model, this.scope.include().resolvers());
+                    this.model = this.model.includeResolvers(this.scope.include().resolvers());
                 }
 
                 // Remove any indices of the entity model that do not appear in "scope.include.indices".
                 if (!this.scope.include().indices().isEmpty()) {
-                    this.model = includeIndices(this.model, this.scope.include().indices());
+                    this.model = this.model.includeIndices(this.scope.include().indices());
                 }
             }
 
@@ -336,12 +251,12 @@ public class Input {
 
                 // Intersect the "indices" field of the entity model with "scope.exclude.indices".
                 if (!this.scope.exclude().indices().isEmpty()) {
-                    this.model = excludeIndices(this.model, this.scope.exclude().indices());
+                    this.model = this.model.excludeIndices(this.scope.exclude().indices());
                 }
 
                 // Intersect the "resolvers" field of the entity model with "scope.exclude.resolvers".
                 if (!this.scope.exclude().resolvers().isEmpty()) {
-                    this.model = excludeResolvers(this.model, this.scope.exclude().resolvers());
+                    this.model = this.model.excludeResolvers(this.scope.exclude().resolvers());
                 }
             }
         }
@@ -371,22 +286,13 @@ public class Input {
                         if (!params.containsKey("format")
                             || params.get("format").equals("null")
                             || Patterns.EMPTY_STRING.matcher(params.get("format")).matches()) {
-                            // Otherwise check if the required params are defined in the model attribute.
-                            params = this.model.attributes().get(attributeName).params();
-                            if (!params.containsKey("format")
-                                || params.get("format").equals("null")
-                                || Patterns.EMPTY_STRING.matcher(params.get("format")).matches()) {
-                                // Otherwise check if the required params are defined in the matcher associated with the index field.
-                                for (String indexFieldName : index.attributeIndexFieldsMap().get(attributeName).keySet()) {
-                                    String matcherName = index.attributeIndexFieldsMap().get(attributeName).get(indexFieldName).matcher();
-                                    params = this.model.matchers().get(matcherName).params();
-                                    if (!params.containsKey("format")
-                                        || params.get("format").equals("null")
-                                        || Patterns.EMPTY_STRING.matcher(params.get("format")).matches()) {
-                                        // If we've gotten this far, that means that the required params for this attribute type
-                                        // haven't been specified in any valid places.
-                                        throw new ValidationException("'attributes." + attributeName + "' is a 'date' which required a 'format' to be specified in the params.");
-                                    }
+                            // Otherwise check if the required params are defined in the model attribute or in the
+                            // matcher associated with each index field.
+                            for (String indexFieldName : index.attributeIndexFieldsMap().get(attributeName).keySet()) {
+                                if (this.model.indexFieldDateFormat(indexName, indexFieldName) == null) {
+                                    // If we've gotten this far, that means that the required params for this attribute type
+                                    // haven't been specified in any valid places.
+                                    throw new ValidationException("'attributes." + attributeName + "' is a 'date' which required a 'format' to be specified in the params.");
                                 }
                             }
                         }
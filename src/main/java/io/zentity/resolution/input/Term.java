@@ -3,6 +3,7 @@ package io.zentity.resolution.input;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.BooleanNode;
 import com.fasterxml.jackson.databind.node.TextNode;
+import io.zentity.common.DateFormats;
 import io.zentity.common.Json;
 import io.zentity.common.Patterns;
 import io.zentity.model.ValidationException;
@@ -12,14 +13,14 @@ import io.zentity.resolution.input.value.NumberValue;
 import io.zentity.resolution.input.value.StringValue;
 
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Map;
 
 public class Term implements Comparable<Term> {
 
     private final String term;
     private Boolean isBoolean;
-    private Boolean isDate;
+    private final Map<String, Boolean> isDate = new HashMap<>();
     private Boolean isNumber;
     private BooleanValue booleanValue;
     private DateValue dateValue;
@@ -40,17 +41,6 @@ public class Term implements Comparable<Term> {
         return Boolean.parseBoolean(term);
     }
 
-    private static boolean isDate(String term, String format) {
-        try {
-            SimpleDateFormat formatter = new SimpleDateFormat(format);
-            formatter.setLenient(false);
-            formatter.parse(term);
-        } catch (ParseException e) {
-            return false;
-        }
-        return true;
-    }
-
     private static boolean isNumber(String term) {
         return Patterns.NUMBER_STRING.matcher(term).matches();
     }
@@ -75,16 +65,13 @@ public class Term implements Comparable<Term> {
     }
 
     /**
-     * Check if the term string is a date value.
-     * Lazily store the decision and then return the decision.
+     * Check if the term string is a date value in a given format.
+     * Lazily store the decision for each format and then return the decision.
      *
      * @return
      */
     public boolean isDate(String format) {
-        if (this.isDate == null) {
-            this.isDate = isDate(this.term, format);
-        }
-        return this.isDate;
+        return this.isDate.computeIfAbsent(format, (f) -> DateFormats.isDate(this.term, f));
     }
 
     /**
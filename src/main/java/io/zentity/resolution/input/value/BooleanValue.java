@@ -6,9 +6,11 @@ import io.zentity.model.ValidationException;
 public class BooleanValue extends Value {
 
     public final String type = "boolean";
+    private final boolean bool;
 
     public BooleanValue(JsonNode value) throws ValidationException {
         super(value);
+        this.bool = value.booleanValue();
     }
 
     /**
@@ -37,4 +39,14 @@ public class BooleanValue extends Value {
         }
     }
 
+    @Override
+    protected boolean sameValue(Value other) {
+        return this.bool == ((BooleanValue) other).bool;
+    }
+
+    @Override
+    protected int hashValue() {
+        return Boolean.hashCode(this.bool);
+    }
+
 }
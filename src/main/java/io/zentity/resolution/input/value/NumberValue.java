@@ -7,8 +7,19 @@ public class NumberValue extends Value {
 
     public final String type = "number";
 
+    // Integral numbers that fit in a long are held as a long and other floating point numbers as a double.
+    // Any other number, such as an integer too big for a long, is compared by its serialized form.
+    private final boolean isLong;
+    private final boolean isDouble;
+    private final long longValue;
+    private final double doubleValue;
+
     public NumberValue(JsonNode value) throws ValidationException {
         super(value);
+        this.isLong = value.isIntegralNumber() && value.canConvertToLong();
+        this.isDouble = value.isFloatingPointNumber();
+        this.longValue = this.isLong ? value.longValue() : 0L;
+        this.doubleValue = this.isDouble ? value.doubleValue() : 0.0;
     }
 
     /**
@@ -21,6 +32,9 @@ public class NumberValue extends Value {
         if (value.isNull()) {
             return "null";
         } else if (value.isIntegralNumber()) {
+            if (value.canConvertToLong()) {
+                return Long.toString(value.longValue());
+            }
             return value.bigIntegerValue().toString();
         } else if (value.isFloatingPointNumber()) {
             return String.valueOf(value.doubleValue());
@@ -41,4 +55,25 @@ public class NumberValue extends Value {
             throw new ValidationException("Expected '" + this.type + "' attribute data type.");
         }
     }
+
+    @Override
+    protected boolean sameValue(Value other) {
+        NumberValue o = (NumberValue) other;
+        if (this.isLong || o.isLong) {
+            return this.isLong && o.isLong && this.longValue == o.longValue;
+        } else if (this.isDouble || o.isDouble) {
+            return this.isDouble && o.isDouble && Double.doubleToLongBits(this.doubleValue) == Double.doubleToLongBits(o.doubleValue);
+        }
+        return this.serialized().equals(o.serialized());
+    }
+
+    @Override
+    protected int hashValue() {
+        if (this.isLong) {
+            return Long.hashCode(this.longValue);
+        } else if (this.isDouble) {
+            return Double.hashCode(this.doubleValue);
+        }
+        return this.serialized().hashCode();
+    }
 }
@@ -6,9 +6,11 @@ import io.zentity.model.ValidationException;
 public class StringValue extends Value {
 
     public final String type = "string";
+    private final String text;
 
     public StringValue(JsonNode value) throws ValidationException {
         super(value);
+        this.text = value.textValue();
     }
 
     /**
@@ -36,4 +38,14 @@ public class StringValue extends Value {
             throw new ValidationException("Expected '" + this.type + "' attribute data type.");
         }
     }
+
+    @Override
+    protected boolean sameValue(Value other) {
+        return this.text.equals(((StringValue) other).text);
+    }
+
+    @Override
+    protected int hashValue() {
+        return this.text.hashCode();
+    }
 }
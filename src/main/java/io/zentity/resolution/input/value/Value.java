@@ -3,11 +3,17 @@ package io.zentity.resolution.input.value;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.zentity.model.ValidationException;
 
+/**
+ * An attribute value. Each type holds its value as a primitive or a string, so that values can be compared and
+ * hashed without serializing them, and two values are equal only when they have the same type and the same value.
+ * The serialized form is only built when it's needed, such as to order the values of an attribute.
+ */
 public abstract class Value implements ValueInterface {
 
     protected final String type = "value";
     protected final JsonNode value;
     private String serialized;
+    private int hash;
 
     /**
      * Validate and hold the object of a value.
@@ -48,6 +54,21 @@ public abstract class Value implements ValueInterface {
     @Override
     public abstract void validate(JsonNode value) throws ValidationException;
 
+    /**
+     * Compare the typed value with the value of another non-null value of the same class.
+     *
+     * @param other The other value.
+     * @return Whether the values are the same.
+     */
+    protected abstract boolean sameValue(Value other);
+
+    /**
+     * Hash the typed value of a non-null value, consistently with {@link #sameValue(Value)}.
+     *
+     * @return The hash.
+     */
+    protected abstract int hashValue();
+
     @Override
     public String type() {
         return this.type;
@@ -69,7 +90,12 @@ public abstract class Value implements ValueInterface {
 
     @Override
     public int compareTo(Value o) {
-        return this.serialized().compareTo(o.serialized());
+        int cmp = this.serialized().compareTo(o.serialized());
+        if (cmp != 0) {
+            return cmp;
+        }
+        // A null value and the string "null" serialize the same way, but they are not the same value.
+        return Boolean.compare(this.value.isNull(), o.value.isNull());
     }
 
     @Override
@@ -78,9 +104,29 @@ public abstract class Value implements ValueInterface {
     }
 
     @Override
-    public boolean equals(Object o) { return this.hashCode() == o.hashCode(); }
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || o.getClass() != this.getClass()) {
+            return false;
+        }
+        Value other = (Value) o;
+        if (this.value.isNull() || other.value.isNull()) {
+            return this.value.isNull() && other.value.isNull();
+        }
+        return this.hashCode() == other.hashCode() && this.sameValue(other);
+    }
 
     @Override
-    public int hashCode() { return this.serialized().hashCode(); }
+    public int hashCode() {
+        // lazy instantiation
+        int h = this.hash;
+        if (h == 0 && !this.value.isNull()) {
+            h = this.hashValue();
+            this.hash = h;
+        }
+        return h;
+    }
 
 }
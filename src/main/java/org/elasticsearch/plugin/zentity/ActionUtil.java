@@ -3,6 +3,7 @@ package org.elasticsearch.plugin.zentity;
 import io.zentity.common.CompletableFutureUtil;
 import io.zentity.model.ValidationException;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
@@ -26,6 +27,9 @@ public abstract class ActionUtil extends BaseRestHandler {
             } else if (unwrapped instanceof ValidationException) {
                 // TODO: move validation handling to where the deserialization is done
                 status = RestStatus.BAD_REQUEST;
+            } else if (unwrapped instanceof EsRejectedExecutionException) {
+                // A saturated thread pool rejected the work.
+                status = RestStatus.TOO_MANY_REQUESTS;
             } else {
                 status = RestStatus.INTERNAL_SERVER_ERROR;
             }
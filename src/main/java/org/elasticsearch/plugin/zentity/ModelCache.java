@@ -0,0 +1,188 @@
+package org.elasticsearch.plugin.zentity;
+
+import io.zentity.common.FunctionalUtil.UnCheckedFunction;
+import io.zentity.model.Model;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.CheckedFunction;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.plugin.zentity.exceptions.NotFoundException;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A node-local cache of the parsed entity models of the .zentity-models index, keyed by entity type.
+ *
+ * <p>
+ * A cached model is trusted for the refresh interval after it was last validated. After that, the next lookup
+ * fetches the stored model again and only parses it if its _seq_no or _primary_term changed, so changes made
+ * through other nodes are picked up within the refresh interval. Models written or deleted through this node are
+ * invalidated right away, and the whole cache is cleared when the models index is deleted or recreated.
+ * Concurrent lookups of the same entity type share a single fetch.
+ */
+public class ModelCache implements ClusterStateListener {
+
+    private final String modelsIndexName;
+    private final long refreshIntervalNanos;
+    private final LongSupplier relativeNanoTime;
+    private final Cache<String, Entry> cache;
+    private final ConcurrentMap<String, CompletableFuture<Model>> loads = new ConcurrentHashMap<>();
+
+    // Incremented on every invalidation so that loads started before it do not cache a stale model.
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile String modelsIndexUUID;
+
+    public ModelCache(ZentityConfig config) {
+        this(
+            config.getModelsIndexName(),
+            config.getModelsCacheMaxSize(),
+            config.getModelsCacheExpireAfterAccess(),
+            config.getModelsCacheRefreshInterval(),
+            System::nanoTime
+        );
+    }
+
+    ModelCache(String modelsIndexName, int maxSize, TimeValue expireAfterAccess, TimeValue refreshInterval, LongSupplier relativeNanoTime) {
+        this.modelsIndexName = modelsIndexName;
+        this.refreshIntervalNanos = refreshInterval.nanos();
+        this.relativeNanoTime = relativeNanoTime;
+        CacheBuilder<String, Entry> builder = CacheBuilder.<String, Entry>builder().setMaximumWeight(maxSize);
+        if (expireAfterAccess.nanos() > 0) {
+            builder.setExpireAfterAccess(expireAfterAccess);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * Get the entity model of an entity type, fetching it only if there is no cached model that was validated within
+     * the refresh interval.
+     *
+     * @param entityType The entity type.
+     * @param fetcher    Fetches the stored entity model.
+     * @return The entity model.
+     * @throws NotFoundException If the entity type does not exist.
+     */
+    public CompletableFuture<Model> get(String entityType, Supplier<CompletableFuture<GetResponse>> fetcher) {
+        Entry entry = cache.get(entityType);
+        if (entry != null && relativeNanoTime.getAsLong() - entry.validatedAt < refreshIntervalNanos) {
+            return CompletableFuture.completedFuture(entry.model);
+        }
+
+        CompletableFuture<Model> load = new CompletableFuture<>();
+        CompletableFuture<Model> existingLoad = loads.putIfAbsent(entityType, load);
+        if (existingLoad != null) {
+            return existingLoad;
+        }
+
+        final long loadGeneration = generation.get();
+        CompletableFuture<GetResponse> fetch;
+        try {
+            fetch = fetcher.get();
+        } catch (Exception ex) {
+            fetch = CompletableFuture.failedFuture(ex);
+        }
+        CheckedFunction<GetResponse, Model, IOException> loader = (res) -> load(entityType, res, loadGeneration);
+        fetch
+            .thenApply(UnCheckedFunction.from(loader))
+            .whenComplete((model, ex) -> {
+                loads.remove(entityType, load);
+                if (ex != null) {
+                    load.completeExceptionally(ex);
+                } else {
+                    load.complete(model);
+                }
+            });
+        return load;
+    }
+
+    /**
+     * Reuse the cached entity model if the fetched one has the same version, otherwise parse and cache it.
+     *
+     * @param entityType     The entity type.
+     * @param res            The response of fetching the stored entity model.
+     * @param loadGeneration The invalidation generation of when the fetch started.
+     * @return The entity model.
+     */
+    private Model load(String entityType, GetResponse res, long loadGeneration) throws IOException {
+        if (!res.isExists()) {
+            cache.invalidate(entityType);
+            throw new NotFoundException("Entity type '" + entityType + "' not found.");
+        }
+
+        long now = relativeNanoTime.getAsLong();
+        Entry entry = cache.get(entityType);
+        if (entry != null && entry.seqNo == res.getSeqNo() && entry.primaryTerm == res.getPrimaryTerm()) {
+            entry.validatedAt = now;
+            return entry.model;
+        }
+
+        Model model = new Model(res.getSourceAsString());
+        if (generation.get() == loadGeneration) {
+            cache.put(entityType, new Entry(model, res.getSeqNo(), res.getPrimaryTerm(), now));
+        }
+        return model;
+    }
+
+    /**
+     * Drop the cached entity model of an entity type.
+     *
+     * @param entityType The entity type.
+     */
+    public void invalidate(String entityType) {
+        generation.incrementAndGet();
+        loads.remove(entityType);
+        cache.invalidate(entityType);
+    }
+
+    /**
+     * Drop all cached entity models.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        loads.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Clear the cache when the models index is deleted or recreated, since the _seq_no and _primary_term of the
+     * models in a new index say nothing about the cached ones.
+     */
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (!event.metadataChanged()) {
+            return;
+        }
+        IndexMetadata indexMetadata = event.state().metadata().index(modelsIndexName);
+        String indexUUID = indexMetadata == null ? null : indexMetadata.getIndexUUID();
+        if (!Objects.equals(indexUUID, modelsIndexUUID)) {
+            modelsIndexUUID = indexUUID;
+            invalidateAll();
+        }
+    }
+
+    private static class Entry {
+        private final Model model;
+        private final long seqNo;
+        private final long primaryTerm;
+        private volatile long validatedAt;
+
+        private Entry(Model model, long seqNo, long primaryTerm, long validatedAt) {
+            this.model = model;
+            this.seqNo = seqNo;
+            this.primaryTerm = primaryTerm;
+            this.validatedAt = validatedAt;
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class ModelsAction extends BaseZentityAction {
     public static final int MAX_ENTITY_TYPE_BYTES = 255;
 
     private final SetupAction setupAction;
+    private final ModelCache modelCache;
 
     /**
      * Check if an entity type meets the name requirements, as specified by the Elasticsearch index
@@ -104,9 +105,10 @@ public class ModelsAction extends BaseZentityAction {
         }
     }
 
-    public ModelsAction(ZentityConfig config) {
+    public ModelsAction(ZentityConfig config, ModelCache modelCache) {
         super(config);
-        setupAction = new SetupAction(config);
+        this.setupAction = new SetupAction(config);
+        this.modelCache = modelCache;
     }
 
     @Override
@@ -189,6 +191,18 @@ public class ModelsAction extends BaseZentityAction {
         return getResponseWithImplicitIndexCreation(client, request);
     }
 
+    /**
+     * Retrieve one parsed entity model by its type, from the model cache when possible.
+     *
+     * @param entityType The entity type.
+     * @param client     The client that will communicate with Elasticsearch.
+     * @return The entity model.
+     * @throws org.elasticsearch.plugin.zentity.exceptions.NotFoundException If the entity type does not exist.
+     */
+    CompletableFuture<Model> getCachedEntityModel(String entityType, NodeClient client) {
+        return modelCache.get(entityType, () -> getEntityModel(entityType, client));
+    }
+
     /**
      * Index one entity model by its type. Return error if an entity model already exists for that entity type.
      *
@@ -204,7 +218,8 @@ public class ModelsAction extends BaseZentityAction {
                 IndexRequestBuilder request = client.prepareIndex(config.getModelsIndexName(), "doc", entityType);
                 request.setSource(requestBody, XContentType.JSON).setCreate(true).setRefreshPolicy("wait_for");
                 return ActionRequestUtil.toCompletableFuture(request, client.threadPool().executor(ThreadPool.Names.WRITE));
-            });
+            })
+            .whenComplete((res, ex) -> modelCache.invalidate(entityType));
     }
 
     /**
@@ -225,7 +240,8 @@ public class ModelsAction extends BaseZentityAction {
                     .setCreate(false)
                     .setRefreshPolicy("wait_for");
                 return ActionRequestUtil.toCompletableFuture(request, client.threadPool().executor(ThreadPool.Names.WRITE));
-            });
+            })
+            .whenComplete((res, ex) -> modelCache.invalidate(entityType));
     }
 
     /**
@@ -238,7 +254,8 @@ public class ModelsAction extends BaseZentityAction {
     CompletableFuture<DeleteResponse> deleteEntityModel(String entityType, NodeClient client) {
         DeleteRequestBuilder request = client.prepareDelete(config.getModelsIndexName(), "doc", entityType);
         request.setRefreshPolicy("wait_for");
-        return getResponseWithImplicitIndexCreation(client, request);
+        return getResponseWithImplicitIndexCreation(client, request)
+            .whenComplete((res, ex) -> modelCache.invalidate(entityType));
     }
 
     @Override
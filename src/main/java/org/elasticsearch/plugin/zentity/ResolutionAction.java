@@ -2,43 +2,46 @@ package org.elasticsearch.plugin.zentity;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import io.zentity.common.BytesReferenceUtil;
 import io.zentity.common.CompletableFutureUtil;
 import io.zentity.common.FunctionalUtil.UnCheckedFunction;
 import io.zentity.common.FunctionalUtil.UnCheckedSupplier;
 import io.zentity.common.Json;
 import io.zentity.common.SecurityUtil;
-import io.zentity.common.StreamUtil;
 import io.zentity.model.Model;
 import io.zentity.resolution.BulkResolutionResponse;
 import io.zentity.resolution.Job;
 import io.zentity.resolution.ResolutionResponse;
 import io.zentity.resolution.input.Input;
-import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.CheckedFunction;
 import org.elasticsearch.common.CheckedSupplier;
-import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.unit.TimeValue;
-import org.elasticsearch.common.util.concurrent.EsExecutors;
-import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.plugin.zentity.exceptions.BadRequestException;
-import org.elasticsearch.plugin.zentity.exceptions.NotFoundException;
 import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
 import static org.elasticsearch.plugin.zentity.ActionUtil.channelErrorHandler;
@@ -47,11 +50,18 @@ import static org.elasticsearch.rest.RestRequest.Method.POST;
 
 public class ResolutionAction extends BaseZentityAction {
     private final Executor resolutionExecutor;
+    private final Executor bulkResolutionExecutor;
     private final ModelsAction modelsAction;
+    private final NamedXContentRegistry xContentRegistry;
+
+    // Streamed bulk responses
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    private static final byte NDJSON_LINE_SEPARATOR = '\n';
 
     // All parameters known to the request
     private static final String PARAM_ENTITY_TYPE = "entity_type";
     private static final String PARAM_PRETTY = "pretty";
+    private static final String PARAM_STREAM = "stream";
     private static final String PARAM_INCLUDE_ATTRIBUTES = "_attributes";
     private static final String PARAM_INCLUDE_ERROR_TRACE = "error_trace";
     private static final String PARAM_INCLUDE_EXPLANATION = "_explanation";
@@ -61,10 +71,15 @@ public class ResolutionAction extends BaseZentityAction {
     private static final String PARAM_INCLUDE_SEQ_NO_PRIMARY_TERM = "_seq_no_primary_term";
     private static final String PARAM_INCLUDE_SOURCE = "_source";
     private static final String PARAM_INCLUDE_VERSION = "_version";
+    private static final String PARAM_INCREMENTAL_HOPS = "incremental_hops";
+    private static final String PARAM_MAX_CONCURRENT_QUERIES_PER_HOP = "max_concurrent_queries_per_hop";
     private static final String PARAM_MAX_DOCS_PER_QUERY = "max_docs_per_query";
     private static final String PARAM_MAX_HOPS = "max_hops";
     private static final String PARAM_MAX_TIME_PER_QUERY = "max_time_per_query";
+    private static final String PARAM_PAGE_SIZE = "page_size";
+    private static final String PARAM_PAGINATE = "paginate";
     private static final String PARAM_PROFILE = "profile";
+    private static final String PARAM_SEEN_DOCS_EXCLUSION = "seen_docs_exclusion";
     private static final String PARAM_SEARCH_ALLOW_PARTIAL_SEARCH_RESULTS = "search.allow_partial_search_results";
     private static final String PARAM_SEARCH_BATCHED_REDUCE_SIZE = "search.batched_reduce_size";
     private static final String PARAM_SEARCH_MAX_CONCURRENT_SHARD_REQUESTS = "search.max_concurrent_shard_requests";
@@ -72,23 +87,17 @@ public class ResolutionAction extends BaseZentityAction {
     private static final String PARAM_SEARCH_REQUEST_CACHE = "search.request_cache";
     private static final String PARAM_SEARCH_PREFERENCE = "search.preference";
 
-    public ResolutionAction(ZentityConfig config) {
+    public ResolutionAction(ZentityConfig config, NamedXContentRegistry xContentRegistry, ModelCache modelCache, ThreadPool threadPool) {
         super(config);
-        modelsAction = new ModelsAction(config);
-        // setup a scaling executor that always keeps a few threads on hand but can
-        // increase as the load increases
-        resolutionExecutor = EsExecutors.newScaling(
-            "zentity-resolution",
-            3,
-            this.config.getResolutionMaxConcurrentJobs(),
-            60,
-            TimeUnit.SECONDS,
-            EsExecutors.daemonThreadFactory("zentity-resolution"),
-            new ThreadContext(Settings.EMPTY)
-        );
+        this.xContentRegistry = xContentRegistry;
+        modelsAction = new ModelsAction(config, modelCache);
+        // Interactive and bulk requests run on separate thread pools so that large bulk requests can't starve
+        // interactive requests. A saturated pool rejects work, which is returned as a "429 Too Many Requests".
+        resolutionExecutor = threadPool.executor(ZentityPlugin.RESOLUTION_THREAD_POOL_NAME);
+        bulkResolutionExecutor = threadPool.executor(ZentityPlugin.BULK_RESOLUTION_THREAD_POOL_NAME);
     }
 
-    CompletableFuture<Input> getInputAsync(NodeClient client, String entityType, String body) {
+    CompletableFuture<Input> getInputAsync(NodeClient client, Executor executor, String entityType, String body) {
         return CompletableFuture
             .supplyAsync(
                 UnCheckedSupplier.from(() -> {
@@ -103,23 +112,17 @@ public class ResolutionAction extends BaseZentityAction {
                     }
                     return null;
                 }),
-                resolutionExecutor
+                executor
             ).thenCompose((input) -> {
                 if (input != null) {
                     return CompletableFuture.completedFuture(input);
                 }
-                return modelsAction.getEntityModel(entityType, client)
-                    .thenApply(UnCheckedFunction.from(
+                // Parse the input on the resolution executor rather than the thread that fetched the model.
+                return modelsAction.getCachedEntityModel(entityType, client)
+                    .thenApplyAsync(UnCheckedFunction.from(
                         // cast needed to appease the compiler for the thrown checked exceptions
-                        (CheckedFunction<GetResponse, Input, IOException>)
-                            (res) -> {
-                                if (!res.isExists()) {
-                                    throw new NotFoundException("Entity type '" + entityType + "' not found.");
-                                }
-                                // TODO: build directly from response
-                                String model = res.getSourceAsString();
-                                return new Input(body, new Model(model));
-                            }));
+                        (CheckedFunction<Model, Input, IOException>) (model) -> new Input(body, model)
+                    ), executor);
             })
             .exceptionally((ex) -> {
                 Throwable cause = CompletableFutureUtil.getCause(ex);
@@ -130,9 +133,9 @@ public class ResolutionAction extends BaseZentityAction {
             });
     }
 
-    CompletableFuture<Job> buildJobAsync(NodeClient client, String body, Map<String, String> params, Map<String, String> reqParams) {
+    CompletableFuture<Job> buildJobAsync(NodeClient client, Executor executor, String body, Map<String, String> params, Map<String, String> reqParams) {
         final String entityType = ParamsUtil.optString(PARAM_ENTITY_TYPE, null, params, reqParams);
-        return getInputAsync(client, entityType, body)
+        return getInputAsync(client, executor, entityType, body)
             .thenApply(
                 (input) -> {
                     // Parse the request params that will be passed to the job configuration
@@ -145,11 +148,31 @@ public class ResolutionAction extends BaseZentityAction {
                     final boolean includeSeqNoPrimaryTerm = ParamsUtil.optBoolean(PARAM_INCLUDE_SEQ_NO_PRIMARY_TERM, Job.DEFAULT_INCLUDE_SEQ_NO_PRIMARY_TERM, params, reqParams);
                     final boolean includeSource = ParamsUtil.optBoolean(PARAM_INCLUDE_SOURCE, Job.DEFAULT_INCLUDE_SOURCE, params, reqParams);
                     final boolean includeVersion = ParamsUtil.optBoolean(PARAM_INCLUDE_VERSION, Job.DEFAULT_INCLUDE_VERSION, params, reqParams);
+                    final boolean incrementalHops = ParamsUtil.optBoolean(PARAM_INCREMENTAL_HOPS, Job.DEFAULT_INCREMENTAL_HOPS, params, reqParams);
+                    final int maxConcurrentQueriesPerHop = ParamsUtil.optInteger(PARAM_MAX_CONCURRENT_QUERIES_PER_HOP, Job.DEFAULT_MAX_CONCURRENT_QUERIES_PER_HOP, params, reqParams);
                     final int maxDocsPerQuery = ParamsUtil.optInteger(PARAM_MAX_DOCS_PER_QUERY, Job.DEFAULT_MAX_DOCS_PER_QUERY, params, reqParams);
                     final int maxHops = ParamsUtil.optInteger(PARAM_MAX_HOPS, Job.DEFAULT_MAX_HOPS, params, reqParams);
                     final TimeValue maxTimePerQuery = ParamsUtil.optTimeValue(PARAM_MAX_TIME_PER_QUERY, Job.DEFAULT_MAX_TIME_PER_QUERY, params, reqParams);
+                    final int pageSize = ParamsUtil.optInteger(PARAM_PAGE_SIZE, Job.DEFAULT_PAGE_SIZE, params, reqParams);
+                    final boolean paginate = ParamsUtil.optBoolean(PARAM_PAGINATE, Job.DEFAULT_PAGINATE, params, reqParams);
                     final boolean profile = ParamsUtil.optBoolean(PARAM_PROFILE, Job.DEFAULT_PROFILE, params, reqParams);
 
+                    final String seenDocsExclusionName = ParamsUtil.optString(PARAM_SEEN_DOCS_EXCLUSION, Job.DEFAULT_SEEN_DOCS_EXCLUSION.name(), params, reqParams);
+
+                    if (maxConcurrentQueriesPerHop < 1) {
+                        throw new BadRequestException("'" + PARAM_MAX_CONCURRENT_QUERIES_PER_HOP + "' must be at least 1.");
+                    }
+                    if (pageSize < 1) {
+                        throw new BadRequestException("'" + PARAM_PAGE_SIZE + "' must be at least 1.");
+                    }
+
+                    final Job.SeenDocsExclusion seenDocsExclusion;
+                    try {
+                        seenDocsExclusion = Job.SeenDocsExclusion.valueOf(seenDocsExclusionName.toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException ex) {
+                        throw new BadRequestException("'" + PARAM_SEEN_DOCS_EXCLUSION + "' must be 'query' or 'client'.");
+                    }
+
                     // Parse any optional search parameters that will be passed to the job configuration.
                     final Boolean searchAllowPartialSearchResults = ParamsUtil.optBoolean(PARAM_SEARCH_ALLOW_PARTIAL_SEARCH_RESULTS, null, params, reqParams);
                     final Integer searchBatchedReduceSize = ParamsUtil.optInteger(PARAM_SEARCH_BATCHED_REDUCE_SIZE, null, params, reqParams);
@@ -160,6 +183,8 @@ public class ResolutionAction extends BaseZentityAction {
 
                     return Job.newBuilder()
                         .client(client)
+                        .executor(executor)
+                        .xContentRegistry(xContentRegistry)
                         .includeAttributes(includeAttributes)
                         .includeErrorTrace(includeErrorTrace)
                         .includeExplanation(includeExplanation)
@@ -169,10 +194,15 @@ public class ResolutionAction extends BaseZentityAction {
                         .includeSeqNoPrimaryTerm(includeSeqNoPrimaryTerm)
                         .includeSource(includeSource)
                         .includeVersion(includeVersion)
+                        .incrementalHops(incrementalHops)
+                        .maxConcurrentQueriesPerHop(maxConcurrentQueriesPerHop)
                         .maxDocsPerQuery(maxDocsPerQuery)
                         .maxHops(maxHops)
                         .maxTimePerQuery(maxTimePerQuery)
+                        .pageSize(pageSize)
+                        .paginate(paginate)
                         .profile(profile)
+                        .seenDocsExclusion(seenDocsExclusion)
                         .input(input)
                         .searchAllowPartialSearchResults(searchAllowPartialSearchResults)
                         .searchBatchedReduceSize(searchBatchedReduceSize)
@@ -185,52 +215,64 @@ public class ResolutionAction extends BaseZentityAction {
             );
     }
 
-    CompletableFuture<ResolutionResponse> buildAndRunJobAsync(NodeClient client, String body, Map<String, String> params, Map<String, String> reqParams) {
-        return buildJobAsync(client, body, params, reqParams)
+    /**
+     * Build and run a job. The job is composed with its searches rather than waited on, so it only holds a thread of
+     * the resolution executor while it has work to do between searches.
+     */
+    CompletableFuture<ResolutionResponse> buildAndRunJobAsync(NodeClient client, Executor executor, String body, Map<String, String> params, Map<String, String> reqParams) {
+        return buildJobAsync(client, executor, body, params, reqParams)
             .handleAsync((job, err) -> {
                 if (err == null) {
-                    return job.runAsync().join();
+                    return job.runAsync();
                 }
                 ResolutionResponse failureResponse = new ResolutionResponse();
                 failureResponse.error = CompletableFutureUtil.getCause(err);
-                return failureResponse;
-            }, resolutionExecutor);
+                return CompletableFuture.completedFuture(failureResponse);
+            }, executor)
+            .thenCompose(Function.identity());
     }
 
-    CompletableFuture<RestResponse> handleBulkJobRequest(final NodeClient client, final ObjectWriter responseWriter, final String reqBody, final Map<String, String> reqParams) {
-        String[] lines = reqBody.split("\\n");
-        if (lines.length % 2 != 0) {
-            throw new BadRequestException("Bulk request must have repeating pairs of params and resolution body on separate lines.");
-        }
-
-
-        // TODO: these suppliers seem to be executing on the transport thread
-        //       that might be causing blocking, so we should change this to allow passing an executor to `runParallel`
-        List<Supplier<CompletableFuture<ResolutionResponse>>> runJobsSuppliers =
-            Arrays.stream(lines)
-                .flatMap(StreamUtil.tupleFlatmapper(new String[2]))
-                .map((tuple) -> (Supplier<CompletableFuture<ResolutionResponse>>) () -> {
-                    final String paramsStr = tuple[0];
-                    Map<String, String> params;
-                    try {
-                        params = Json.toStringMap(paramsStr);
-                    } catch (Exception ex) {
-                        ResolutionResponse failureResponse = new ResolutionResponse();
-                        failureResponse.error = new BadRequestException("Could not parse parameters: " + paramsStr);
-                        return CompletableFuture.completedFuture(failureResponse);
-                    }
-                    final String body = tuple[1];
+    CompletableFuture<RestResponse> handleBulkJobRequest(final NodeClient client, final RestChannel channel, final ObjectWriter responseWriter, final BytesReference reqBody, final boolean stream, final Map<String, String> reqParams) {
+        // Pair up the lines without decoding them. Each line is a slice of the request content, and is only decoded
+        // when its job is started, so the request is never copied into one large string.
+        List<Supplier<CompletableFuture<ResolutionResponse>>> runJobsSuppliers = new ArrayList<>();
+        Iterator<BytesReference> lines = BytesReferenceUtil.lines(reqBody);
+        while (lines.hasNext()) {
+            final BytesReference paramsLine = lines.next();
+            if (!lines.hasNext()) {
+                throw new BadRequestException("Bulk request must have repeating pairs of params and resolution body on separate lines.");
+            }
+            final BytesReference bodyLine = lines.next();
+            runJobsSuppliers.add(() -> {
+                final String paramsStr = paramsLine.utf8ToString();
+                Map<String, String> params;
+                try {
+                    params = Json.toStringMap(paramsStr);
+                } catch (Exception ex) {
+                    ResolutionResponse failureResponse = new ResolutionResponse();
+                    failureResponse.error = new BadRequestException("Could not parse parameters: " + paramsStr);
+                    return CompletableFuture.completedFuture(failureResponse);
+                }
+                final String body = bodyLine.utf8ToString();
 
-                    return buildAndRunJobAsync(client, body, params, reqParams);
-                })
-                .collect(Collectors.toList());
+                return buildAndRunJobAsync(client, bulkResolutionExecutor, body, params, reqParams);
+            });
+        }
 
         int maxConcurrentJobs = config.getResolutionMaxConcurrentJobsPerRequest();
 
+        if (stream) {
+            return handleStreamedBulkJobs(channel, runJobsSuppliers, maxConcurrentJobs);
+        }
+
         // Start timer and begin the jobs
         final long startTime = System.nanoTime();
         // maybe this belongs better in a BulkJob class
-        return CompletableFuture.supplyAsync(() -> CompletableFutureUtil.runParallel(runJobsSuppliers, maxConcurrentJobs).join(), resolutionExecutor)
+        // Start the jobs from the resolution executor rather than the transport thread. Each job hands off its
+        // own work to the executor, so no thread waits on the jobs to finish.
+        return CompletableFuture
+            .supplyAsync(() -> CompletableFutureUtil.runParallel(runJobsSuppliers, maxConcurrentJobs), bulkResolutionExecutor)
+            .thenCompose(Function.identity())
             .thenApply(UnCheckedFunction.from((jobResponses) -> {
                 BulkResolutionResponse response = new BulkResolutionResponse();
                 // mark as an error if any of the jobs failed
@@ -238,26 +280,88 @@ public class ResolutionAction extends BaseZentityAction {
                 response.items = jobResponses;
                 response.tookMs = Duration.ofNanos(System.nanoTime() - startTime).toMillis();
 
-                // Jackson needs reflection access, which requires escalated security
-                String responseJson = SecurityUtil.doPrivileged(
-                    (CheckedSupplier<String, ?>) () -> responseWriter.writeValueAsString(response)
-                );
+                BytesStreamOutput out = channel.bytesOutput();
+                writeJson(responseWriter, out, response);
+                return new BytesRestResponse(RestStatus.OK, "application/json", out.bytes());
+            }));
+    }
+
+    /**
+     * Serialize a value as JSON into the output buffer of a channel. The buffer is recycled by the channel once the
+     * response is sent, so a response is never held as a String and then encoded again as bytes.
+     *
+     * @param writer The JSON writer.
+     * @param out    The output buffer of the channel.
+     * @param value  The value to serialize.
+     */
+    static void writeJson(ObjectWriter writer, BytesStreamOutput out, Object value) {
+        // Jackson needs reflection access, which requires escalated security
+        SecurityUtil.doPrivileged((CheckedSupplier<Void, IOException>) () -> {
+            // Flush rather than close the output when done, since closing would release its buffer.
+            writer.writeValue(Streams.flushOnCloseStream(out), value);
+            return null;
+        });
+    }
+
+    /**
+     * Run the jobs of a bulk request and write each response as an NDJSON line as soon as its job finishes, followed
+     * by a summary line. Each line carries the position of its job in the request, since the lines are written in the
+     * order in which the jobs finish. The responses are released once they are written, so the coordinating node only
+     * holds the serialized lines rather than every response and a copy of the whole response as a string.
+     */
+    CompletableFuture<RestResponse> handleStreamedBulkJobs(final RestChannel channel, final List<Supplier<CompletableFuture<ResolutionResponse>>> runJobsSuppliers, final int maxConcurrentJobs) {
+        // NDJSON cannot be pretty printed, since each item must stay on one line
+        final ObjectWriter lineWriter = Json.MAPPER.writer();
+        final BytesStreamOutput out = channel.bytesOutput();
+
+        List<Supplier<CompletableFuture<Boolean>>> writeItemsSuppliers = new ArrayList<>(runJobsSuppliers.size());
+        for (int i = 0; i < runJobsSuppliers.size(); i++) {
+            final int seq = i;
+            final Supplier<CompletableFuture<ResolutionResponse>> runJob = runJobsSuppliers.get(i);
+            writeItemsSuppliers.add(() -> runJob.get().thenApply(UnCheckedFunction.from((res) -> {
+                BulkResolutionResponse.Item item = new BulkResolutionResponse.Item(seq, res);
+                synchronized (out) {
+                    writeJson(lineWriter, out, item);
+                    out.writeByte(NDJSON_LINE_SEPARATOR);
+                }
+                return res.isFailure();
+            })));
+        }
 
-                return new BytesRestResponse(RestStatus.OK, "application/json", responseJson);
+        // Start timer and begin the jobs
+        final long startTime = System.nanoTime();
+        return CompletableFuture
+            .supplyAsync(() -> CompletableFutureUtil.runParallel(writeItemsSuppliers, maxConcurrentJobs), bulkResolutionExecutor)
+            .thenCompose(Function.identity())
+            .thenApply(UnCheckedFunction.from((failures) -> {
+                BulkResolutionResponse.Summary summary = new BulkResolutionResponse.Summary();
+                // mark as an error if any of the jobs failed
+                summary.errors = failures.contains(true);
+                summary.itemCount = failures.size();
+                summary.tookMs = Duration.ofNanos(System.nanoTime() - startTime).toMillis();
+                synchronized (out) {
+                    writeJson(lineWriter, out, summary);
+                    out.writeByte(NDJSON_LINE_SEPARATOR);
+                    return new BytesRestResponse(RestStatus.OK, NDJSON_CONTENT_TYPE, out.bytes());
+                }
             }));
     }
 
-    CompletableFuture<RestResponse> handleSingleJobRequest(NodeClient client, ObjectWriter responseWriter, String body, Map<String, String> reqParams) {
-        return buildAndRunJobAsync(client, body, reqParams, emptyMap())
+    CompletableFuture<RestResponse> handleSingleJobRequest(NodeClient client, RestChannel channel, ObjectWriter responseWriter, String body, Map<String, String> reqParams) {
+        return buildAndRunJobAsync(client, resolutionExecutor, body, reqParams, emptyMap())
             .thenApply(UnCheckedFunction.from((res) -> {
-                // Jackson needs reflection access, which requires escalated security
-                String responseJson = SecurityUtil.doPrivileged((
-                    CheckedSupplier<String, ?>) () -> responseWriter.writeValueAsString(res)
-                );
-
-                RestStatus status = res.isFailure() ? RestStatus.INTERNAL_SERVER_ERROR : RestStatus.OK;
+                BytesStreamOutput out = channel.bytesOutput();
+                writeJson(responseWriter, out, res);
+
+                RestStatus status = RestStatus.OK;
+                if (res.isFailure()) {
+                    // Report a job that was rejected by a saturated thread pool as a "429 Too Many Requests".
+                    status = ExceptionsHelper.status(res.error) == RestStatus.TOO_MANY_REQUESTS
+                        ? RestStatus.TOO_MANY_REQUESTS
+                        : RestStatus.INTERNAL_SERVER_ERROR;
+                }
 
-                return new BytesRestResponse(status, "application/json", responseJson);
+                return new BytesRestResponse(status, "application/json", out.bytes());
             }));
     }
 
@@ -283,12 +387,6 @@ public class ResolutionAction extends BaseZentityAction {
             throw new BadRequestException("Request body is missing.");
         }
 
-        // build and run all jobs, with a max concurrency for bulk jobs
-
-        // would be better to handle incoming content as a stream for bulk,
-        // but alas, unsure how to use the StreamInput format
-        final String body = restRequest.content().utf8ToString();
-
         // Read all possible parameters into a map so that the handler knows we've consumed them
         // and all other unknowns will be thrown as unrecognized
         Map<String, String> reqParams = ParamsUtil.readAll(
@@ -304,20 +402,27 @@ public class ResolutionAction extends BaseZentityAction {
             PARAM_INCLUDE_SEQ_NO_PRIMARY_TERM,
             PARAM_INCLUDE_SOURCE,
             PARAM_INCLUDE_VERSION,
+            PARAM_INCREMENTAL_HOPS,
+            PARAM_MAX_CONCURRENT_QUERIES_PER_HOP,
             PARAM_MAX_DOCS_PER_QUERY,
             PARAM_MAX_HOPS,
             PARAM_MAX_TIME_PER_QUERY,
+            PARAM_PAGE_SIZE,
+            PARAM_PAGINATE,
             PARAM_PROFILE,
+            PARAM_SEEN_DOCS_EXCLUSION,
             PARAM_SEARCH_ALLOW_PARTIAL_SEARCH_RESULTS,
             PARAM_SEARCH_BATCHED_REDUCE_SIZE,
             PARAM_SEARCH_MAX_CONCURRENT_SHARD_REQUESTS,
             PARAM_SEARCH_PRE_FILTER_SHARD_SIZE,
             PARAM_SEARCH_REQUEST_CACHE,
-            PARAM_SEARCH_PREFERENCE
+            PARAM_SEARCH_PREFERENCE,
+            PARAM_STREAM
         );
 
         // Parse the request params that govern the entire request/response
         final boolean pretty = ParamsUtil.optBoolean(PARAM_PRETTY, false, reqParams, emptyMap());
+        final boolean stream = ParamsUtil.optBoolean(PARAM_STREAM, false, reqParams, emptyMap());
 
         return errorHandlingConsumer(channel -> {
             final ObjectWriter writer = pretty
@@ -326,9 +431,10 @@ public class ResolutionAction extends BaseZentityAction {
 
             boolean isBulkRequest = restRequest.path().endsWith("_bulk");
 
+            // Bulk requests read their lines straight from the request content. Only a single job is decoded whole.
             CompletableFuture<RestResponse> handleFut = isBulkRequest
-                ? handleBulkJobRequest(client, writer, body, reqParams)
-                : handleSingleJobRequest(client, writer, body, reqParams);
+                ? handleBulkJobRequest(client, channel, writer, restRequest.content(), stream, reqParams)
+                : handleSingleJobRequest(client, channel, writer, restRequest.content().utf8ToString(), reqParams);
 
             handleFut
                 .thenAccept(channel::sendResponse)
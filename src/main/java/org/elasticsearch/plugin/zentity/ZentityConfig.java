@@ -3,6 +3,7 @@ package org.elasticsearch.plugin.zentity;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.env.Environment;
 
 import java.io.IOException;
@@ -12,8 +13,9 @@ import java.util.List;
 
 public class ZentityConfig {
 
+    // Superseded by "thread_pool.zentity_resolution.size", since jobs no longer hold a thread while they run.
     private static final Setting<Integer> RESOLUTION_MAX_CONCURRENT_JOBS = Setting
-        .intSetting("resolution.max_concurrent_jobs", 10_000, Setting.Property.NodeScope, Setting.Property.Dynamic);
+        .intSetting("resolution.max_concurrent_jobs", 10_000, Setting.Property.NodeScope, Setting.Property.Dynamic, Setting.Property.Deprecated);
 
     private static final Setting<Integer> RESOLUTION_MAX_CONCURRENT_JOBS_PER_REQUEST = Setting
         .intSetting("resolution.max_concurrent_jobs_per_request", 100, Setting.Property.NodeScope, Setting.Property.Dynamic);
@@ -27,6 +29,15 @@ public class ZentityConfig {
     private static final Setting<Integer> MODELS_INDEX_DEFAULT_NUMBER_OF_REPLICAS = Setting
         .intSetting("index.default_number_of_replicas", 1, Setting.Property.NodeScope, Setting.Property.Final);
 
+    private static final Setting<Integer> MODELS_CACHE_MAX_SIZE = Setting
+        .intSetting("models.cache.max_size", 1_000, 1, Setting.Property.NodeScope, Setting.Property.Final);
+
+    private static final Setting<TimeValue> MODELS_CACHE_EXPIRE_AFTER_ACCESS = Setting
+        .timeSetting("models.cache.expire_after_access", TimeValue.timeValueHours(1), Setting.Property.NodeScope, Setting.Property.Final);
+
+    private static final Setting<TimeValue> MODELS_CACHE_REFRESH_INTERVAL = Setting
+        .timeSetting("models.cache.refresh_interval", TimeValue.timeValueSeconds(5), Setting.Property.NodeScope, Setting.Property.Final);
+
     private final Settings settings;
 
     public ZentityConfig(Environment env) {
@@ -68,13 +79,28 @@ public class ZentityConfig {
         return MODELS_INDEX_DEFAULT_NUMBER_OF_REPLICAS.get(settings);
     }
 
+    public int getModelsCacheMaxSize() {
+        return MODELS_CACHE_MAX_SIZE.get(settings);
+    }
+
+    public TimeValue getModelsCacheExpireAfterAccess() {
+        return MODELS_CACHE_EXPIRE_AFTER_ACCESS.get(settings);
+    }
+
+    public TimeValue getModelsCacheRefreshInterval() {
+        return MODELS_CACHE_REFRESH_INTERVAL.get(settings);
+    }
+
     public List<Setting<?>> getSettings() {
         return Arrays.asList(
             RESOLUTION_MAX_CONCURRENT_JOBS,
             RESOLUTION_MAX_CONCURRENT_JOBS_PER_REQUEST,
             MODELS_INDEX_NAME,
             MODELS_INDEX_DEFAULT_NUMBER_OF_SHARDS,
-            MODELS_INDEX_DEFAULT_NUMBER_OF_REPLICAS
+            MODELS_INDEX_DEFAULT_NUMBER_OF_REPLICAS,
+            MODELS_CACHE_MAX_SIZE,
+            MODELS_CACHE_EXPIRE_AFTER_ACCESS,
+            MODELS_CACHE_REFRESH_INTERVAL
         );
     }
 }
@@ -15,25 +15,37 @@ import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchResponseSections;
 import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsFilter;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.env.Environment;
+import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.plugins.ActionPlugin;
 import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.rest.RestController;
 import org.elasticsearch.rest.RestHandler;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.profile.SearchProfileShardResults;
 import org.elasticsearch.search.suggest.Suggest;
+import org.elasticsearch.threadpool.ExecutorBuilder;
+import org.elasticsearch.threadpool.FixedExecutorBuilder;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.watcher.ResourceWatcherService;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -51,8 +63,23 @@ public class ZentityPlugin extends Plugin implements ActionPlugin {
 
     private static final Properties PROPERTIES = new Properties();
 
+    // The thread pools that run resolution jobs, which are listed in "_cat/thread_pool" and "_nodes/stats".
+    public static final String RESOLUTION_THREAD_POOL_NAME = "zentity_resolution";
+    public static final String BULK_RESOLUTION_THREAD_POOL_NAME = "zentity_bulk_resolution";
+    private static final int RESOLUTION_THREAD_POOL_QUEUE_SIZE = 1_000;
+    private static final int BULK_RESOLUTION_THREAD_POOL_QUEUE_SIZE = 10_000;
+
     public ZentityConfig config;
 
+    // The node's registry of named xcontent parsers, which is set when the plugin components are created.
+    private NamedXContentRegistry xContentRegistry;
+
+    // The cache of parsed entity models that is shared by the models and resolution actions.
+    private ModelCache modelCache;
+
+    // The node's thread pools, which are set when the plugin components are created.
+    private ThreadPool threadPool;
+
     static {
         try {
             Properties zentityProperties = loadPropertiesFromResources("/zentity.properties");
@@ -165,6 +192,26 @@ public class ZentityPlugin extends Plugin implements ActionPlugin {
         return PROPERTIES.getProperty("version");
     }
 
+    @Override
+    public Collection<Object> createComponents(
+        Client client,
+        ClusterService clusterService,
+        ThreadPool threadPool,
+        ResourceWatcherService resourceWatcherService,
+        ScriptService scriptService,
+        NamedXContentRegistry xContentRegistry,
+        Environment environment,
+        NodeEnvironment nodeEnvironment,
+        NamedWriteableRegistry namedWriteableRegistry,
+        IndexNameExpressionResolver indexNameExpressionResolver,
+        Supplier<RepositoriesService> repositoriesServiceSupplier) {
+        this.xContentRegistry = xContentRegistry;
+        this.threadPool = threadPool;
+        this.modelCache = new ModelCache(config);
+        clusterService.addListener(modelCache);
+        return Collections.emptyList();
+    }
+
     @Override
     public List<RestHandler> getRestHandlers(
         Settings settings,
@@ -176,12 +223,42 @@ public class ZentityPlugin extends Plugin implements ActionPlugin {
         Supplier<DiscoveryNodes> nodesInCluster) {
         return List.of(
             new HomeAction(config),
-            new ModelsAction(config),
-            new ResolutionAction(config),
+            new ModelsAction(config, modelCache),
+            new ResolutionAction(config, xContentRegistry, modelCache, threadPool),
             new SetupAction(config)
         );
     }
 
+    /**
+     * Declare fixed size thread pools with bounded queues for interactive and bulk resolution, so that they can be
+     * monitored like any other thread pool and a saturated pool rejects work instead of growing without bound.
+     *
+     * <p>
+     * Like the built-in thread pools, their sizes are node settings: "thread_pool.zentity_resolution.size" defaults to
+     * the number of allocated processors, and "thread_pool.zentity_bulk_resolution.size" to half of them. The
+     * "queue_size" of each pool defaults to 1000 and 10000.
+     */
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        int processors = EsExecutors.allocatedProcessors(settings);
+        return List.of(
+            new FixedExecutorBuilder(
+                settings,
+                RESOLUTION_THREAD_POOL_NAME,
+                processors,
+                RESOLUTION_THREAD_POOL_QUEUE_SIZE,
+                "thread_pool." + RESOLUTION_THREAD_POOL_NAME
+            ),
+            new FixedExecutorBuilder(
+                settings,
+                BULK_RESOLUTION_THREAD_POOL_NAME,
+                (processors + 1) / 2,
+                BULK_RESOLUTION_THREAD_POOL_QUEUE_SIZE,
+                "thread_pool." + BULK_RESOLUTION_THREAD_POOL_NAME
+            )
+        );
+    }
+
     /**
      * Returns a list of additional {@link Setting} definitions for this plugin.
      */
@@ -0,0 +1,85 @@
+package io.zentity.common;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.ClearScrollRequestBuilder;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ActionRequestUtilTest {
+    @SuppressWarnings("unchecked")
+    private static ClearScrollRequestBuilder mockRequest(ClearScrollResponse response, Exception error) {
+        ClearScrollRequestBuilder reqBuilder = mock(ClearScrollRequestBuilder.class);
+        doAnswer((invocation) -> {
+            ActionListener<ClearScrollResponse> listener = invocation.getArgument(0);
+            if (error == null) {
+                listener.onResponse(response);
+            } else {
+                listener.onFailure(error);
+            }
+            return null;
+        }).when(reqBuilder).execute(any(ActionListener.class));
+        return reqBuilder;
+    }
+
+    @Test
+    public void testToCompletableFutureWithExecutor() {
+        ClearScrollResponse response = new ClearScrollResponse(true, 1);
+        ClearScrollRequestBuilder reqBuilder = mockRequest(response, null);
+        AtomicInteger executed = new AtomicInteger();
+        CompletableFuture<ClearScrollResponse> fut = ActionRequestUtil.toCompletableFuture(reqBuilder, (r) -> {
+            executed.incrementAndGet();
+            r.run();
+        });
+        assertSame(response, fut.join());
+        // the response is handed off to the executor rather than blocking on it
+        assertEquals(1, executed.get());
+        verify(reqBuilder, never()).get();
+    }
+
+    @Test
+    public void testToCompletableFutureWithExecutorFailure() throws Exception {
+        IllegalStateException error = new IllegalStateException("failed");
+        ClearScrollRequestBuilder reqBuilder = mockRequest(null, error);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ActionRequestUtil.toCompletableFuture(reqBuilder, executor).join();
+            fail("Expected the future to complete exceptionally");
+        } catch (CompletionException ex) {
+            assertSame(error, ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testToCompletableFutureWithRejectingExecutor() {
+        ClearScrollRequestBuilder reqBuilder = mockRequest(new ClearScrollResponse(true, 1), null);
+        CompletableFuture<ClearScrollResponse> fut = ActionRequestUtil.toCompletableFuture(reqBuilder, (r) -> {
+            throw new EsRejectedExecutionException("rejected");
+        });
+        assertTrue(fut.isCompletedExceptionally());
+        try {
+            fut.join();
+            fail("Expected the future to complete exceptionally");
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof EsRejectedExecutionException);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.zentity.common;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BytesReferenceUtilTest {
+
+    private static List<String> lines(String content) {
+        List<String> lines = new ArrayList<>();
+        Iterator<BytesReference> iterator = BytesReferenceUtil.lines(new BytesArray(content));
+        while (iterator.hasNext()) {
+            lines.add(iterator.next().utf8ToString());
+        }
+        return lines;
+    }
+
+    @Test
+    public void testLines() {
+        assertEquals(List.of("{\"a\":1}", "{\"b\":2}"), lines("{\"a\":1}\n{\"b\":2}"));
+    }
+
+    @Test
+    public void testLinesTrailingNewlines() {
+        assertEquals(List.of("{}", "{}"), lines("{}\n{}\n"));
+        assertEquals(List.of("{}", "{}"), lines("{}\n{}\n\n\n"));
+        assertEquals(List.of(), lines("\n"));
+    }
+
+    @Test
+    public void testLinesEmptyLines() {
+        assertEquals(List.of("{}", "", "{}"), lines("{}\n\n{}"));
+    }
+
+    @Test
+    public void testLinesMultiByte() {
+        assertEquals(List.of("{\"name\":\"Zoë\"}", "{\"name\":\"李\"}"), lines("{\"name\":\"Zoë\"}\n{\"name\":\"李\"}\n"));
+    }
+
+    @Test
+    public void testLinesMatchSplit() {
+        String content = "a\nbb\n\nccc\n";
+        assertEquals(List.of(content.split("\\n")), lines(content));
+    }
+}
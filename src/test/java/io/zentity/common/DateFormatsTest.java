@@ -0,0 +1,57 @@
+package io.zentity.common;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DateFormatsTest {
+
+    /**
+     * Formats that Elasticsearch formats differently than SimpleDateFormat must not be given to "docvalue_fields".
+     */
+    @Test
+    public void testIsDocValueDateFormat() {
+        assertTrue(DateFormats.isDocValueDateFormat("yyyy-MM-dd"));
+        assertTrue(DateFormats.isDocValueDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS"));
+        assertTrue(DateFormats.isDocValueDateFormat("yyyy-MM-dd'T'HH:mm:ss.0000"));
+        assertTrue(DateFormats.isDocValueDateFormat("dd MMM yyyy 'at' HH:mm"));
+        assertTrue(DateFormats.isDocValueDateFormat("'uSS' yyyy"));
+        assertTrue(DateFormats.isDocValueDateFormat("yyyy-MM-dd 'z'"));
+        assertTrue(DateFormats.isDocValueDateFormat("EEEE, MMMM d, yyyy G"));
+        assertTrue(DateFormats.isDocValueDateFormat("yyyy-MM-dd'T'HH:mm:ssZ"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd'T'HH:mm:ss.S"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSS"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd u"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd HH:mm z"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd HH:mm zzzz"));
+        assertFalse(DateFormats.isDocValueDateFormat("dd MMMMM yyyy"));
+        assertFalse(DateFormats.isDocValueDateFormat("dd LLLLL yyyy"));
+        assertFalse(DateFormats.isDocValueDateFormat("EEEEE yyyy-MM-dd"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd GGGG"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd'T'HH:mm:ssZZZZ"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd[ HH:mm]"));
+        assertFalse(DateFormats.isDocValueDateFormat("yyyy-MM-dd||yyyy"));
+    }
+
+    @Test
+    public void testIsDate() {
+        assertTrue(DateFormats.isDate("2019-12-31 12:45:00.123", "yyyy-MM-dd HH:mm:ss.SSS"));
+        assertFalse(DateFormats.isDate("2019-02-29", "yyyy-MM-dd"));
+        assertFalse(DateFormats.isDate("2019-12-31", "yyyy-MM-dd ["));
+    }
+
+    /**
+     * Formats whose letters mean something else to java.time are parsed with SimpleDateFormat.
+     */
+    @Test
+    public void testIsDateSimpleDateFormat() {
+        assertTrue(DateFormats.isDate("2019-12-31 2", "yyyy-MM-dd u"));
+        assertTrue(DateFormats.isDate("2019-12-31 12:45:00.5", "yyyy-MM-dd HH:mm:ss.SSSS"));
+        assertTrue(DateFormats.isDate("2019-12-31 12:45 UTC", "yyyy-MM-dd HH:mm z"));
+        assertTrue(DateFormats.isDate("2019-12-31T12:45:00+0000", "yyyy-MM-dd'T'HH:mm:ssZZZZ"));
+        assertFalse(DateFormats.isDate("2019-02-29 5", "yyyy-MM-dd u"));
+        assertFalse(DateFormats.isDate("2019-12-31 2 extra", "yyyy-MM-dd u"));
+        assertFalse(DateFormats.isDate("2019-12-31", "yyyy-MM-dd q"));
+    }
+}
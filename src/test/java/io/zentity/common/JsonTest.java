@@ -1,6 +1,8 @@
 package io.zentity.common;
 
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.zentity.resolution.FilterTree;
 import org.junit.Test;
 
@@ -8,6 +10,7 @@ import java.util.Collections;
 import java.util.TreeMap;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class JsonTest {
     @Test
@@ -27,4 +30,26 @@ public class JsonTest {
         String serialized = Json.ORDERED_MAPPER.writeValueAsString(nestedTree);
         assertEquals("{\"0\":{}}", serialized);
     }
+
+    @Test
+    public void testAt() throws JsonProcessingException {
+        JsonNode node = Json.ORDERED_MAPPER.readTree("{\"a\":{\"b\":[{\"c\":1},{\"c\":2}],\"d\":\"e\"}}");
+        String[][] paths = {
+            {"a"},
+            {"a", "b"},
+            {"a", "b", "1"},
+            {"a", "b", "1", "c"},
+            {"a", "b", "01"},
+            {"a", "b", "c"},
+            {"a", "d"},
+            {"a", "d", "e"},
+            {"x"}
+        };
+        for (String[] path : paths) {
+            JsonNode expected = node.at(JsonPointer.compile("/" + String.join("/", path)));
+            assertEquals(expected, Json.at(node, path));
+        }
+        assertEquals(2, Json.at(node, new String[]{"a", "b", "1", "c"}).intValue());
+        assertTrue(Json.at(node, new String[]{"a", "b", "c"}).isMissingNode());
+    }
 }
@@ -0,0 +1,140 @@
+package io.zentity.common;
+
+import io.zentity.common.FunctionalUtil.Recursable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares {@link ParallelScheduler} with the chained and partitioned implementations that
+ * {@link CompletableFutureUtil#runParallel} used before it. Every tenth task takes far longer than the others, which
+ * is where a slow task holding back its partition shows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSchedulerBenchmark {
+
+    private static final int PARALLELISM = 16;
+    private static final long FAST_TASK_TOKENS = 1_000;
+    private static final long SLOW_TASK_TOKENS = 100_000;
+
+    @Param({"100", "5000"})
+    public int size;
+
+    private ExecutorService executor;
+    private List<Supplier<CompletableFuture<Integer>>> suppliers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+        suppliers = IntStream.range(0, size)
+            .mapToObj((i) -> (Supplier<CompletableFuture<Integer>>) () -> CompletableFuture.supplyAsync(() -> {
+                Blackhole.consumeCPU(i % 10 == 0 ? SLOW_TASK_TOKENS : FAST_TASK_TOKENS);
+                return i;
+            }, executor))
+            .collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public List<Integer> scheduler() {
+        return new ParallelScheduler(PARALLELISM).run(suppliers).join();
+    }
+
+    @Benchmark
+    public List<Integer> chains() {
+        return runParallelInChains(suppliers, PARALLELISM).join();
+    }
+
+    @Benchmark
+    public List<Integer> partitions() {
+        return runParallelInPartitions(suppliers, PARALLELISM).join();
+    }
+
+    // The implementations that ParallelScheduler replaced.
+
+    @SuppressWarnings("unchecked")
+    static <T> CompletableFuture<List<T>> runParallelInChains(List<Supplier<CompletableFuture<T>>> suppliers, int parallelism) {
+        final int size = suppliers.size();
+        CompletableFuture<T>[] futures = new CompletableFuture[size];
+        final AtomicInteger currentIdx = new AtomicInteger(0);
+        final CompletableFuture<Void> FINISHED = CompletableFuture.completedFuture(null);
+
+        final Supplier<CompletableFuture<?>> nextFutureSupplier = () -> {
+            int nextIdx = currentIdx.getAndIncrement();
+            if (nextIdx >= size) {
+                return FINISHED;
+            }
+            CompletableFuture<T> nextFuture = suppliers.get(nextIdx).get();
+            futures[nextIdx] = nextFuture;
+            return nextFuture;
+        };
+
+        final Recursable<CompletableFuture<?>, CompletableFuture<?>> futureRunner = (fut, f) -> {
+            if (fut == FINISHED) {
+                return FINISHED;
+            }
+            return fut.thenCompose((ignored) -> f.apply(nextFutureSupplier.get()));
+        };
+
+        List<CompletableFuture<?>> channels = IntStream.range(0, parallelism)
+            .mapToObj(i -> futureRunner.apply(CompletableFuture.completedFuture(null)))
+            .collect(Collectors.toList());
+
+        return CompletableFutureUtil.allOfIgnored(channels)
+            .thenApply((ignored) -> CompletableFutureUtil.joinAllOf(Arrays.stream(futures)));
+    }
+
+    static <T> CompletableFuture<List<T>> runParallelInPartitions(List<Supplier<CompletableFuture<T>>> suppliers, int parallelism) {
+        Collection<List<Supplier<CompletableFuture<T>>>> partitions = CollectionUtil.partition(suppliers, parallelism);
+
+        return partitions
+            .stream()
+            .reduce(
+                CompletableFuture.completedFuture(new ArrayList<>()),
+                (allFut, nextBatch) -> allFut
+                    .thenCompose(
+                        (allItems) -> CompletableFutureUtil.runSeries(nextBatch).thenApply((item) -> {
+                            allItems.addAll(item);
+                            return allItems;
+                        })
+                    ),
+                (fut1, fut2) -> fut1.thenCombine(fut2, (l1, l2) -> {
+                    l1.addAll(l2);
+                    return l1;
+                })
+            );
+    }
+}
@@ -0,0 +1,175 @@
+package io.zentity.common;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelSchedulerTest {
+
+    private static List<Supplier<CompletableFuture<Integer>>> completedSuppliers(int size) {
+        return IntStream.range(0, size)
+            .mapToObj((i) -> (Supplier<CompletableFuture<Integer>>) () -> CompletableFuture.completedFuture(i))
+            .collect(Collectors.toList());
+    }
+
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRun() {
+        assertEquals(range(5), new ParallelScheduler(2).run(completedSuppliers(5)).join());
+    }
+
+    @Test
+    public void testRunEmpty() {
+        assertEquals(List.of(), new ParallelScheduler(2).run(completedSuppliers(0)).join());
+    }
+
+    @Test
+    public void testRunCompletedTasksWithConstantStack() {
+        int size = 1_000_000;
+        assertEquals(range(size), new ParallelScheduler(1).run(completedSuppliers(size)).join());
+        assertEquals(range(size), new ParallelScheduler(16).run(completedSuppliers(size)).join());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelism() {
+        new ParallelScheduler(0);
+    }
+
+    @Test
+    public void testParallelismLimit() {
+        int size = 10;
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        List<Supplier<CompletableFuture<Integer>>> suppliers = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            CompletableFuture<Integer> fut = new CompletableFuture<>();
+            pending.add(fut);
+            suppliers.add(() -> fut);
+        }
+        AtomicInteger started = new AtomicInteger();
+        List<Supplier<CompletableFuture<Integer>>> counted = suppliers.stream()
+            .map((supplier) -> (Supplier<CompletableFuture<Integer>>) () -> {
+                started.incrementAndGet();
+                return supplier.get();
+            })
+            .collect(Collectors.toList());
+
+        CompletableFuture<List<Integer>> result = new ParallelScheduler(3).run(counted);
+        assertEquals(3, started.get());
+
+        // A slot that frees up is filled with the next task, whichever slot it is.
+        pending.get(1).complete(1);
+        assertEquals(4, started.get());
+        pending.get(3).complete(3);
+        assertEquals(5, started.get());
+
+        // The results keep the order of the tasks, not the order in which they finished.
+        for (int i = size - 1; i >= 0; i--) {
+            pending.get(i).complete(i);
+        }
+        assertEquals(size, started.get());
+        assertEquals(range(size), result.join());
+    }
+
+    @Test
+    public void testFailureCancelsInFlight() {
+        CompletableFuture<Integer> slow = new CompletableFuture<>();
+        CompletableFuture<Integer> failing = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        List<Supplier<CompletableFuture<Integer>>> suppliers = List.of(
+            () -> slow,
+            () -> failing,
+            () -> {
+                started.incrementAndGet();
+                return CompletableFuture.completedFuture(2);
+            }
+        );
+        CompletableFuture<List<Integer>> result = new ParallelScheduler(2).run(suppliers);
+        failing.completeExceptionally(new IllegalStateException("failed"));
+        try {
+            result.join();
+            fail("failure expected");
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(slow.isCancelled());
+        assertEquals(0, started.get());
+    }
+
+    @Test
+    public void testCancel() {
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        List<Supplier<CompletableFuture<Integer>>> suppliers = List.of(
+            () -> pending,
+            () -> {
+                started.incrementAndGet();
+                return CompletableFuture.completedFuture(1);
+            }
+        );
+        CompletableFuture<List<Integer>> result = new ParallelScheduler(1).run(suppliers);
+        result.cancel(false);
+        assertTrue(pending.isCancelled());
+        pending.complete(0);
+        assertEquals(0, started.get());
+        try {
+            result.join();
+            fail("cancellation expected");
+        } catch (CancellationException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTaskTimeout() {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CompletableFuture<Integer> pending = new CompletableFuture<>();
+            List<Supplier<CompletableFuture<Integer>>> suppliers = List.of(
+                () -> CompletableFuture.completedFuture(0),
+                () -> pending
+            );
+            CompletableFuture<List<Integer>> result = new ParallelScheduler(2, Duration.ofMillis(50), timer).run(suppliers);
+            try {
+                result.join();
+                fail("timeout expected");
+            } catch (CompletionException ex) {
+                assertTrue(ex.getCause() instanceof TimeoutException);
+            }
+            assertTrue(pending.isCancelled());
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTaskTimeoutNotReached() {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            List<Supplier<CompletableFuture<Integer>>> suppliers = IntStream.range(0, 5)
+                .mapToObj((i) -> (Supplier<CompletableFuture<Integer>>) () -> CompletableFuture.supplyAsync(() -> i))
+                .collect(Collectors.toList());
+            assertEquals(range(5), new ParallelScheduler(2, Duration.ofSeconds(30), timer).run(suppliers).join());
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.zentity.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class RawJsonTest {
+
+    private static final String SOURCE = "{\"name\":\"Zoë\",\"city\":\"New York\",\"phones\":[\"555-1234\",null]}";
+
+    private static ObjectNode docWithSource(RawJson source) {
+        ObjectNode doc = Json.ORDERED_MAPPER.createObjectNode();
+        doc.put("_id", "1");
+        doc.putRawValue("_source", source.toRawValue());
+        doc.put("_hop", 0);
+        return doc;
+    }
+
+    @Test
+    public void testWriteAsBytes() throws Exception {
+        RawJson source = RawJson.of(new BytesArray(SOURCE));
+        byte[] json = Json.MAPPER.writeValueAsBytes(docWithSource(source));
+        assertEquals("{\"_id\":\"1\",\"_source\":" + SOURCE + ",\"_hop\":0}", new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteAsString() throws Exception {
+        RawJson source = RawJson.of(new BytesArray(SOURCE));
+        String json = Json.MAPPER.writeValueAsString(docWithSource(source));
+        assertEquals("{\"_id\":\"1\",\"_source\":" + SOURCE + ",\"_hop\":0}", json);
+    }
+
+    @Test
+    public void testWriteLargerThanBuffer() throws Exception {
+        StringBuilder large = new StringBuilder("[");
+        for (int i = 0; i < 10_000; i++) {
+            large.append(i > 0 ? "," : "").append("\"value_").append(i).append("\"");
+        }
+        large.append("]");
+        String source = "{\"values\":" + large + "}";
+        byte[] json = Json.MAPPER.writeValueAsBytes(docWithSource(RawJson.of(new BytesArray(source))));
+        assertEquals("{\"_id\":\"1\",\"_source\":" + source + ",\"_hop\":0}", new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConvertFromSmile() throws Exception {
+        XContentBuilder builder = XContentFactory.smileBuilder()
+            .startObject()
+            .field("name", "Zoë")
+            .field("age", 30)
+            .endObject();
+        RawJson source = RawJson.of(BytesReference.bytes(builder));
+        JsonNode expected = Json.MAPPER.readTree("{\"name\":\"Zoë\",\"age\":30}");
+        assertEquals(expected, Json.MAPPER.readTree(source.asUnquotedUTF8()));
+        assertEquals(expected, Json.MAPPER.readTree(Json.MAPPER.writeValueAsBytes(docWithSource(source))).get("_source"));
+    }
+}
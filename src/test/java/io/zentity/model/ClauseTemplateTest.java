@@ -0,0 +1,60 @@
+package io.zentity.model;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClauseTemplateTest {
+
+    @Test
+    public void testVariables() {
+        ClauseTemplate template = ClauseTemplate.compile("{\"match\":{\"{{ field }}\":{\"query\":\"{{value}}\",\"fuzziness\":\"{{ params.fuzziness }}\"}}}");
+        Set<String> expected = new TreeSet<>();
+        expected.add("field");
+        expected.add("params.fuzziness");
+        expected.add("value");
+        assertEquals(expected, template.variables());
+    }
+
+    @Test
+    public void testBindAndRender() {
+        ClauseTemplate template = ClauseTemplate.compile("{\"match\":{\"{{ field }}\":{\"query\":\"{{ value }}\",\"fuzziness\":\"{{ params.fuzziness }}\"}}}");
+        Map<String, String> values = new TreeMap<>();
+        values.put("field", "field_name");
+        values.put("params.fuzziness", "2");
+        ClauseTemplate bound = template.bind(values);
+        assertEquals(Collections.singleton("value"), bound.variables());
+        assertEquals("{\"match\":{\"field_name\":{\"query\":\"Alice\",\"fuzziness\":\"2\"}}}", bound.render("Alice"));
+        assertEquals("{\"match\":{\"field_name\":{\"query\":\"Bob\",\"fuzziness\":\"2\"}}}", bound.render("Bob"));
+    }
+
+    @Test
+    public void testRenderRepeatedValue() {
+        ClauseTemplate template = ClauseTemplate.compile("{\"range\":{\"f\":{\"gte\":\"{{ value }}||-1d\",\"lte\":\"{{ value }}||+1d\"}}}");
+        assertEquals("{\"range\":{\"f\":{\"gte\":\"2020-01-01||-1d\",\"lte\":\"2020-01-01||+1d\"}}}", template.render("2020-01-01"));
+    }
+
+    @Test
+    public void testRenderEscapesValue() {
+        ClauseTemplate template = ClauseTemplate.compile("{\"term\":{\"f\":\"{{ value }}\"}}");
+        assertEquals("{\"term\":{\"f\":\"a \\\"quoted\\\" $1 \\\\ value\"}}", template.render("a \"quoted\" $1 \\ value"));
+    }
+
+    @Test
+    public void testUnknownVariablesAreLiteral() {
+        ClauseTemplate template = ClauseTemplate.compile("{\"term\":{\"{{ foo }}\":\"{{ value }}\"}}");
+        assertEquals(Collections.singleton("value"), template.variables());
+        assertEquals("{\"term\":{\"{{ foo }}\":\"bar\"}}", template.render("bar"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRenderUnboundVariable() {
+        ClauseTemplate.compile("{\"match\":{\"{{ field }}\":\"{{ value }}\"}}").render("bar");
+    }
+}
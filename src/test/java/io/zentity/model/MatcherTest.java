@@ -2,6 +2,9 @@ package io.zentity.model;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class MatcherTest {
 
     public final static String VALID_OBJECT = "{\"clause\":{\"match\":{\"{{ field }}\":\"{{ value }}\"}}}";
@@ -28,6 +31,17 @@ public class MatcherTest {
 
     ////  "matchers".MATCHER_NAME."clause"  ////////////////////////////////////////////////////////////////////////////
 
+    @Test
+    public void testIsTerm() throws Exception {
+        assertTrue(new Matcher("matcher_name", "{\"clause\":{\"term\":{\"{{ field }}\":\"{{ value }}\"}}}").isTerm());
+        assertTrue(new Matcher("matcher_name", "{\"clause\":{\"term\":{\"{{field}}\":{\"value\":\"{{value}}\"}}}}").isTerm());
+        assertFalse(new Matcher("matcher_name", VALID_OBJECT).isTerm());
+        assertFalse(new Matcher("matcher_name", "{\"clause\":{\"term\":{\"{{ field }}\":{\"value\":\"{{ value }}\",\"boost\":2.0}}}}").isTerm());
+        assertFalse(new Matcher("matcher_name", "{\"clause\":{\"term\":{\"{{ field }}\":\"{{ params.value }}\"}}}").isTerm());
+        assertFalse(new Matcher("matcher_name", "{\"clause\":{\"term\":{\"{{ field }}.keyword\":\"{{ value }}\"}}}").isTerm());
+        assertFalse(new Matcher("matcher_name", "{\"clause\":{\"bool\":{\"filter\":{\"term\":{\"{{ field }}\":\"{{ value }}\"}}}}}").isTerm());
+    }
+
     @Test(expected = ValidationException.class)
     public void testInvalidClauseEmpty() throws Exception {
         new Matcher("matcher_name", "{\"clause\":{}}");
@@ -2,6 +2,11 @@ package io.zentity.model;
 
 import org.junit.Test;
 
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 public class ModelTest {
 
     public final static String VALID_OBJECT = "{\n" +
@@ -602,4 +607,91 @@ public class ModelTest {
                 "  \"indices\":{\"index_name_a\":\"foobar\"}\n" +
                 "}");
     }
+
+    ////  lookups and scope  ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final String DATE_MODEL = "{\n" +
+            "  \"attributes\":{\"date_a\":{\"type\":\"date\",\"params\":{\"format\":\"yyyy-MM-dd\",\"window\":\"1d\"}},\"date_b\":{\"type\":\"date\"}},\n" +
+            "  \"resolvers\":{\"resolver_a\":{\"attributes\":[\"date_a\"]},\"resolver_b\":{\"attributes\":[\"date_b\"]}},\n" +
+            "  \"matchers\":{\"matcher_date\":{\"clause\":{\"term\":{\"{{ field }}\":\"{{ value }}\"}},\"params\":{\"format\":\"MM/dd/yyyy\",\"window\":\"0d\"}}},\n" +
+            "  \"indices\":{\n" +
+            "    \"index_a\":{\"fields\":{\"field_a\":{\"attribute\":\"date_a\",\"matcher\":\"matcher_date\"},\"field_b\":{\"attribute\":\"date_b\",\"matcher\":\"matcher_date\"}}},\n" +
+            "    \"index_b\":{\"fields\":{\"field_b\":{\"attribute\":\"date_b\"}}}\n" +
+            "  }\n" +
+            "}";
+
+    @Test
+    public void testIndexFieldParams() throws Exception {
+        Model model = new Model(DATE_MODEL);
+        assertEquals("yyyy-MM-dd", model.indexFieldParams("index_a", "field_a").get("format"));
+        assertEquals("1d", model.indexFieldParams("index_a", "field_a").get("window"));
+        assertEquals("MM/dd/yyyy", model.indexFieldParams("index_a", "field_b").get("format"));
+        assertEquals(0, model.indexFieldParams("index_b", "field_b").size());
+    }
+
+    @Test
+    public void testIndexFieldDateFormat() throws Exception {
+        Model model = new Model(DATE_MODEL);
+        assertEquals("yyyy-MM-dd", model.indexFieldDateFormat("index_a", "field_a"));
+        assertEquals("MM/dd/yyyy", model.indexFieldDateFormat("index_a", "field_b"));
+        assertNull(model.indexFieldDateFormat("index_b", "field_b"));
+    }
+
+    @Test
+    public void testIndexFieldScore() throws Exception {
+        Model model = new Model("{\n" +
+            "  \"attributes\":{\"a\":{\"score\":0.75},\"b\":{\"score\":0.75},\"c\":{}},\n" +
+            "  \"resolvers\":{\"resolver_a\":{\"attributes\":[\"a\",\"b\",\"c\"]}},\n" +
+            "  \"matchers\":{\"matcher_a\":{\"clause\":{\"term\":{\"{{ field }}\":\"{{ value }}\"}},\"quality\":0.9}},\n" +
+            "  \"indices\":{\"index_a\":{\"fields\":{\n" +
+            "    \"field_a\":{\"attribute\":\"a\",\"matcher\":\"matcher_a\",\"quality\":0.8},\n" +
+            "    \"field_b\":{\"attribute\":\"b\"},\n" +
+            "    \"field_c\":{\"attribute\":\"c\",\"matcher\":\"matcher_a\"}\n" +
+            "  }}}\n" +
+            "}");
+        assertEquals(0.68, model.indexFieldScore("index_a", "field_a"), 0.0000000001);
+        assertEquals(Model.attributeIdentityConfidenceScore(0.75, 0.9, 0.8), model.indexFieldScore("index_a", "field_a"));
+
+        // No score without a matcher or without an attribute score.
+        assertNull(model.indexFieldScore("index_a", "field_b"));
+        assertNull(model.indexFieldScore("index_a", "field_c"));
+        assertNull(model.indexFieldScore("index_b", "field_a"));
+
+        // Views share the scores and the attribute ordinals.
+        Model view = model.excludeResolvers(Set.of());
+        assertEquals(model.indexFieldScore("index_a", "field_a"), view.indexFieldScore("index_a", "field_a"));
+        assertEquals(0, view.attributeOrdinal("a"));
+        assertEquals(1, view.attributeOrdinal("b"));
+        assertEquals(2, view.attributeOrdinal("c"));
+        assertEquals(-1, view.attributeOrdinal("d"));
+    }
+
+    @Test
+    public void testScopeViews() throws Exception {
+        Model model = new Model(DATE_MODEL);
+        Model view = model.includeIndices(Set.of("index_a")).excludeResolvers(Set.of("resolver_b"));
+        assertEquals(Set.of("index_a"), view.indices().keySet());
+        assertEquals(Set.of("resolver_a"), view.resolvers().keySet());
+        assertEquals(Set.of("date_a"), view.resolverAttributes());
+
+        // The model itself is unchanged.
+        assertEquals(Set.of("index_a", "index_b"), model.indices().keySet());
+        assertEquals(Set.of("resolver_a", "resolver_b"), model.resolvers().keySet());
+        assertEquals(Set.of("date_a", "date_b"), model.resolverAttributes());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testScopeUnknownIndex() throws Exception {
+        new Model(DATE_MODEL).excludeIndices(Set.of("index_c"));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testScopeUnknownResolver() throws Exception {
+        new Model(DATE_MODEL).includeResolvers(Set.of("resolver_c"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() throws Exception {
+        new Model(DATE_MODEL).indices().remove("index_a");
+    }
 }
@@ -0,0 +1,46 @@
+package io.zentity.resolution;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DocIdSetTest {
+
+    @Test
+    public void testAdd() {
+        DocIdSet ids = new DocIdSet();
+        assertTrue(ids.isEmpty());
+        assertTrue(ids.add("a"));
+        assertTrue(ids.add("b"));
+        assertFalse(ids.add("a"));
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains("a"));
+        assertTrue(ids.contains("b"));
+        assertFalse(ids.contains("c"));
+    }
+
+    @Test
+    public void testUnicode() {
+        DocIdSet ids = new DocIdSet();
+        assertTrue(ids.add("día"));
+        assertTrue(ids.add("dia"));
+        assertFalse(ids.add("día"));
+        assertArrayEquals(new String[]{ "día", "dia" }, ids.toArray());
+    }
+
+    @Test
+    public void testGrow() {
+        DocIdSet ids = new DocIdSet();
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(ids.add("doc-" + i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(ids.add("doc-" + i));
+        }
+        assertEquals(10000, ids.size());
+        assertEquals("doc-9999", ids.toArray()[9999]);
+    }
+}
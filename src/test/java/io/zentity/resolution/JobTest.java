@@ -1,26 +1,30 @@
 package io.zentity.resolution;
 
+import io.zentity.common.Json;
 import io.zentity.common.XContentUtil;
 import io.zentity.model.Matcher;
 import io.zentity.model.Model;
 import io.zentity.model.ValidationException;
 import io.zentity.resolution.input.Input;
+import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.script.Script;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.zentity.resolution.BoolQueryUtils.BoolQueryCombiner.FILTER;
+import static io.zentity.resolution.BoolQueryUtils.BoolQueryCombiner.SHOULD;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class JobTest {
     @Test
@@ -51,15 +55,144 @@ public class JobTest {
         List<List<String>> resolversSorted = Job.sortResolverAttributes(model, resolversList, counts);
         FilterTree resolversFilterTree = Job.makeResolversFilterTree(resolversSorted);
         QueryBuilder resolversQuery = Job.buildResolversQuery(
-            model, "index", resolversFilterTree, input.attributes(), false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), model, "index", resolversFilterTree, input.attributes(), false, new NamedQueries(input, "index")
         );
         assertNotNull(resolversQuery);
 
-        String expected = "{\"bool\":{\"should\":[{\"match\":{\"id\":{\"query\":\"1234567890\",\"operator\":\"OR\",\"fuzziness\":\"AUTO\",\"prefix_length\":0,\"max_expansions\":50,\"fuzzy_transpositions\":true,\"lenient\":false,\"zero_terms_query\":\"NONE\",\"auto_generate_synonyms_phrase_query\":true,\"boost\":1.0}}},{\"bool\":{\"filter\":[{\"bool\":{\"should\":[{\"term\":{\"name\":{\"value\":\"Alice Jones\",\"boost\":1.0}}},{\"term\":{\"name\":{\"value\":\"Alice Jones-Smith\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}},{\"bool\":{\"should\":[{\"match\":{\"phone\":{\"query\":\"555-123-4567\",\"operator\":\"OR\",\"fuzziness\":\"2\",\"prefix_length\":0,\"max_expansions\":50,\"fuzzy_transpositions\":true,\"lenient\":false,\"zero_terms_query\":\"NONE\",\"auto_generate_synonyms_phrase_query\":true,\"boost\":1.0}}},{\"bool\":{\"filter\":[{\"term\":{\"street\":{\"value\":\"123 Main St\",\"boost\":1.0}}},{\"bool\":{\"should\":[{\"bool\":{\"filter\":[{\"term\":{\"city\":{\"value\":\"Beverly Hills\",\"boost\":1.0}}},{\"term\":{\"state\":{\"value\":\"CA\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}},{\"term\":{\"zip\":{\"value\":\"90210\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}";
+        String expected = "{\"bool\":{\"should\":[{\"match\":{\"id\":{\"query\":\"1234567890\",\"operator\":\"OR\",\"fuzziness\":\"AUTO\",\"prefix_length\":0,\"max_expansions\":50,\"fuzzy_transpositions\":true,\"lenient\":false,\"zero_terms_query\":\"NONE\",\"auto_generate_synonyms_phrase_query\":true,\"boost\":1.0}}},{\"bool\":{\"filter\":[{\"terms\":{\"name\":[\"Alice Jones\",\"Alice Jones-Smith\"],\"boost\":1.0}},{\"bool\":{\"should\":[{\"match\":{\"phone\":{\"query\":\"555-123-4567\",\"operator\":\"OR\",\"fuzziness\":\"2\",\"prefix_length\":0,\"max_expansions\":50,\"fuzzy_transpositions\":true,\"lenient\":false,\"zero_terms_query\":\"NONE\",\"auto_generate_synonyms_phrase_query\":true,\"boost\":1.0}}},{\"bool\":{\"filter\":[{\"term\":{\"street\":{\"value\":\"123 Main St\",\"boost\":1.0}}},{\"bool\":{\"should\":[{\"bool\":{\"filter\":[{\"term\":{\"city\":{\"value\":\"Beverly Hills\",\"boost\":1.0}}},{\"term\":{\"state\":{\"value\":\"CA\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}},{\"term\":{\"zip\":{\"value\":\"90210\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}],\"adjust_pure_negative\":true,\"boost\":1.0}}";
         String actual = XContentUtil.serializeAsJSON(resolversQuery);
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void testMakeIncrementalResolversClause() throws Exception {
+        String attributes = "\"attributes\":{\"name\":{},\"phone\":{},\"id\":{}}";
+        String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"name\",\"phone\"]},\"b\":{\"attributes\":[\"id\"]}}";
+        String matchers = "\"matchers\":{\"x\":{\"clause\":{\"term\":{\"{{field}}\":\"{{value}}\"}}}}";
+        String indices = "\"indices\":{\"index\":{\"fields\":{\"name\":{\"attribute\":\"name\",\"matcher\":\"x\"},\"phone\":{\"attribute\":\"phone\",\"matcher\":\"x\"},\"id\":{\"attribute\":\"id\",\"matcher\":\"x\"}}}}";
+        Model model = new Model("{" + attributes + "," + resolvers + "," + matchers + "," + indices + "}");
+        Input known = new Input("{\"attributes\":{\"name\":[\"Alice\",\"Alicia\"],\"phone\":[\"555-123-4567\"],\"id\":[\"1234\"]}}", model);
+        List<String> resolversList = Arrays.asList("a", "b");
+        Map<String, Integer> counts = Job.countAttributesAcrossResolvers(model, resolversList);
+        FilterTree resolversFilterTree = Job.makeResolversFilterTree(Job.sortResolverAttributes(model, resolversList, counts));
+
+        // A new value of the second attribute of a resolver is matched with all known values of the first attribute.
+        Input newPhone = new Input("{\"attributes\":{\"phone\":[\"555-123-4567\"]}}", model);
+        QueryBuilder query = Job.buildIncrementalResolversQuery(
+            XContentUtil.defaultRegistry(), model, "index", resolversFilterTree, known.attributes(), newPhone.attributes(), false, new NamedQueries(known, "index")
+        );
+        String expected = "{\"bool\":{\"filter\":[{\"terms\":{\"name\":[\"Alice\",\"Alicia\"],\"boost\":1.0}},{\"term\":{\"phone\":{\"value\":\"555-123-4567\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}}";
+        assertEquals(expected, XContentUtil.serializeAsJSON(query));
+
+        // A new value of the first attribute of a resolver is matched with all known values of the second attribute.
+        // Resolvers without new values are left out.
+        Input newName = new Input("{\"attributes\":{\"name\":[\"Alicia\"]}}", model);
+        query = Job.buildIncrementalResolversQuery(
+            XContentUtil.defaultRegistry(), model, "index", resolversFilterTree, known.attributes(), newName.attributes(), false, new NamedQueries(known, "index")
+        );
+        expected = "{\"bool\":{\"filter\":[{\"term\":{\"name\":{\"value\":\"Alicia\",\"boost\":1.0}}},{\"term\":{\"phone\":{\"value\":\"555-123-4567\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}}";
+        assertEquals(expected, XContentUtil.serializeAsJSON(query));
+
+        // Nothing is matched without new values.
+        query = Job.buildIncrementalResolversQuery(
+            XContentUtil.defaultRegistry(), model, "index", resolversFilterTree, known.attributes(), new HashMap<>(), false, new NamedQueries(known, "index")
+        );
+        assertNull(query);
+    }
+
+    /**
+     * The values of a "term" matcher are matched with a single "terms" query, unless the clauses are named or must all
+     * match.
+     */
+    @Test
+    public void testBuildIndexFieldQueriesTerms() throws Exception {
+        String attributes = "\"attributes\":{\"name\":{},\"phone\":{}}";
+        String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"name\",\"phone\"]}}";
+        String matchers = "\"matchers\":{\"x\":{\"clause\":{\"term\":{\"{{field}}\":\"{{value}}\"}}},\"y\":{\"clause\":{\"match\":{\"{{field}}\":\"{{value}}\"}}}}";
+        String indices = "\"indices\":{\"index\":{\"fields\":{\"name\":{\"attribute\":\"name\",\"matcher\":\"x\"},\"phone\":{\"attribute\":\"phone\",\"matcher\":\"y\"}}}}";
+        Model model = new Model("{" + attributes + "," + resolvers + "," + matchers + "," + indices + "}");
+        Input input = new Input("{\"attributes\":{\"name\":[\"Alice\",\"Alicia\"],\"phone\":[\"555-123-4567\",\"555-987-6543\"]}}", model);
+
+        List<QueryBuilder> queries = Job.buildIndexFieldQueries(
+            XContentUtil.defaultRegistry(), model, "index", input.attributes(), "name", SHOULD, false, new NamedQueries(input, "index")
+        );
+        assertEquals(1, queries.size());
+        assertEquals("{\"terms\":{\"name\":[\"Alice\",\"Alicia\"],\"boost\":1.0}}", XContentUtil.serializeAsJSON(queries.get(0)));
+
+        // A "match" matcher can analyze its values, so they keep their own clauses.
+        queries = Job.buildIndexFieldQueries(
+            XContentUtil.defaultRegistry(), model, "index", input.attributes(), "phone", SHOULD, false, new NamedQueries(input, "index")
+        );
+        assertTrue(XContentUtil.serializeAsJSON(queries.get(0)).startsWith("{\"bool\":{\"should\":[{\"match\""));
+
+        // Every value must match a "filter" clause.
+        queries = Job.buildIndexFieldQueries(
+            XContentUtil.defaultRegistry(), model, "index", input.attributes(), "name", FILTER, false, new NamedQueries(input, "index")
+        );
+        assertEquals(
+            "{\"bool\":{\"filter\":[{\"term\":{\"name\":{\"value\":\"Alice\",\"boost\":1.0}}},{\"term\":{\"name\":{\"value\":\"Alicia\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}}",
+            XContentUtil.serializeAsJSON(queries.get(0))
+        );
+
+        // Named clauses tell which value matched.
+        NamedQueries namedQueries = new NamedQueries(input, "index");
+        Job.buildIndexFieldQueries(
+            XContentUtil.defaultRegistry(), model, "index", input.attributes(), "name", SHOULD, true, namedQueries
+        );
+        assertEquals(2, namedQueries.size());
+    }
+
+    @Test
+    public void testMakeResolversClauseNamedQueries() throws Exception {
+        String attributes = "\"attributes\":{\"name\":{},\"phone\":{\"type\":\"number\"}}";
+        String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"name\",\"phone\"]}}";
+        String matchers = "\"matchers\":{\"x\":{\"clause\":{\"term\":{\"{{field}}\":\"{{value}}\"}},\"params\":{\"p\":\"1\"}}}";
+        String indices = "\"indices\":{\"index\":{\"fields\":{\"name\":{\"attribute\":\"name\",\"matcher\":\"x\"},\"phone\":{\"attribute\":\"phone\",\"matcher\":\"x\"}}}}";
+        Model model = new Model("{" + attributes + "," + resolvers + "," + matchers + "," + indices + "}");
+        Input input = new Input("{\"attributes\":{\"name\":[\"Alice\",\"Alicia\"]}}", model);
+        Input known = new Input("{\"attributes\":{\"name\":[\"Alice\",\"Alicia\"],\"phone\":[5551234567]}}", model);
+        List<String> resolversList = Collections.singletonList("a");
+        Map<String, Integer> counts = Job.countAttributesAcrossResolvers(model, resolversList);
+        FilterTree resolversFilterTree = Job.makeResolversFilterTree(Job.sortResolverAttributes(model, resolversList, counts));
+
+        NamedQueries namedQueries = new NamedQueries(input, "index");
+        QueryBuilder query = Job.buildResolversQuery(
+            XContentUtil.defaultRegistry(), model, "index", resolversFilterTree, known.attributes(), true, namedQueries
+        );
+        assertNotNull(query);
+        assertEquals(3, namedQueries.size());
+        String json = XContentUtil.serializeAsJSON(query);
+        for (String name : Arrays.asList("0", "1", "2")) {
+            assertTrue(json.contains("\"_name\":\"" + name + "\""));
+        }
+
+        // Identical clauses share their names.
+        Job.buildResolversQuery(
+            XContentUtil.defaultRegistry(), model, "index", resolversFilterTree, known.attributes(), true, namedQueries
+        );
+        assertEquals(3, namedQueries.size());
+
+        Map<String, NamedQueries.NamedQuery> byValue = new HashMap<>();
+        for (String name : Arrays.asList("0", "1", "2")) {
+            NamedQueries.NamedQuery namedQuery = namedQueries.get(name);
+            assertEquals("x", namedQuery.matcherName);
+            assertEquals(namedQuery.attributeName, namedQuery.indexFieldName);
+            byValue.put(namedQuery.inputValue.toString(), namedQuery);
+        }
+        // The params of an input attribute are used over the params of the matcher, even if there are none.
+        assertEquals("{}", byValue.get("\"Alice\"").matcherParams.toString());
+        assertEquals("{}", byValue.get("\"Alicia\"").matcherParams.toString());
+        assertEquals("{\"p\":\"1\"}", byValue.get("5551234567").matcherParams.toString());
+        assertTrue(byValue.get("5551234567").inputValue.isNumber());
+
+        try {
+            namedQueries.get("3");
+            fail("unknown name expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
     /**
      * Populate the clause of a matcher by substituting the {{ field }} and {{ value }} variables.
      */
@@ -74,7 +207,7 @@ public class JobTest {
             "}";
         Matcher matcher = new Matcher("matcher_phone", matcherJson);
         Map<String, String> params = new HashMap<>();
-        QueryBuilder matcherClause = Job.buildMatcherClause(matcher, "field_phone", "555-123-4567", params);
+        QueryBuilder matcherClause = Job.buildMatcherClause(XContentUtil.defaultRegistry(), matcher, "field_phone", "555-123-4567", params);
         String expected = "{\"match\":{\"field_phone\":{\"query\":\"555-123-4567\",\"operator\":\"OR\",\"prefix_length\":0,\"max_expansions\":50,\"fuzzy_transpositions\":true,\"lenient\":false,\"zero_terms_query\":\"NONE\",\"auto_generate_synonyms_phrase_query\":true,\"boost\":1.0}}}";
         String actual = XContentUtil.serializeAsJSON(matcherClause);
         assertEquals(expected, actual);
@@ -96,7 +229,7 @@ public class JobTest {
         Matcher matcher = new Matcher("matcher_phone", matcherJson);
         Map<String, String> params = new HashMap<>();
         params.put("foo", "bar");
-        QueryBuilder matcherClause = Job.buildMatcherClause(matcher, "field_phone", "555-123-4567", params);
+        QueryBuilder matcherClause = Job.buildMatcherClause(XContentUtil.defaultRegistry(), matcher, "field_phone", "555-123-4567", params);
         String actual = XContentUtil.serializeAsJSON(matcherClause);
         String expected = "{\"match\":{\"field_phone\":{\"query\":\"555-123-4567\",\"operator\":\"OR\",\"prefix_length\":0,\"max_expansions\":50,\"fuzzy_transpositions\":true,\"lenient\":false,\"zero_terms_query\":\"NONE\",\"auto_generate_synonyms_phrase_query\":true,\"boost\":1.0}}}";
         assertEquals(expected, actual);
@@ -121,7 +254,7 @@ public class JobTest {
         Matcher matcher = new Matcher("matcher_phone", matcherJson);
         Map<String, String> params = new HashMap<>();
         // Should throw
-        Job.buildMatcherClause(matcher, "field_phone", "555-123-4567", params);
+        Job.buildMatcherClause(XContentUtil.defaultRegistry(), matcher, "field_phone", "555-123-4567", params);
     }
 
     /**
@@ -143,7 +276,7 @@ public class JobTest {
         Matcher matcher = new Matcher("matcher_phone", matcherJson);
         Map<String, String> params = new HashMap<>();
         // should throw
-        Job.buildMatcherClause(matcher, "field_phone", "555-123-4567", params);
+        Job.buildMatcherClause(XContentUtil.defaultRegistry(), matcher, "field_phone", "555-123-4567", params);
     }
 
     /**
@@ -167,7 +300,7 @@ public class JobTest {
             "}";
         Matcher matcher = new Matcher("matcher_phone", matcherJson);
         Map<String, String> params = new HashMap<>();
-        QueryBuilder matcherClause = Job.buildMatcherClause(matcher, "field_phone", "555-123-4567", params);
+        QueryBuilder matcherClause = Job.buildMatcherClause(XContentUtil.defaultRegistry(), matcher, "field_phone", "555-123-4567", params);
         String actual = XContentUtil.serializeAsJSON(matcherClause);
         String expected = "{\"match\":{\"field_phone\":{\"query\":\"555-123-4567\",\"operator\":\"OR\",\"fuzziness\":\"2\",\"prefix_length\":0,\"max_expansions\":50,\"fuzzy_transpositions\":true,\"lenient\":false,\"zero_terms_query\":\"NONE\",\"auto_generate_synonyms_phrase_query\":true,\"boost\":1.0}}}";
         assertEquals(expected, actual);
@@ -214,7 +347,7 @@ public class JobTest {
         Input input = new Input(json, model);
 
         List<QueryBuilder> attributeQueries = Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
         assertEquals(1, attributeQueries.size());
 
@@ -267,7 +400,7 @@ public class JobTest {
         Input input = new Input(json, model);
 
         List<QueryBuilder> attributeClauses = Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
         assertEquals(1, attributeClauses.size());
 
@@ -319,7 +452,7 @@ public class JobTest {
         Input input = new Input(json, model);
 
         List<QueryBuilder> attributeClauses = Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
         assertEquals(1, attributeClauses.size());
 
@@ -377,7 +510,7 @@ public class JobTest {
         Input input = new Input(json, model);
 
         List<QueryBuilder> attributeClauses = Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
         assertEquals(1, attributeClauses.size());
 
@@ -439,7 +572,7 @@ public class JobTest {
         Input input = new Input(json, model);
 
         List<QueryBuilder> attributeClauses = Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
         assertEquals(1, attributeClauses.size());
 
@@ -505,7 +638,7 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
         List<QueryBuilder> attributeClauses = Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
         String expected = "{\"range\":{\"field_timestamp\":{\"from\":\"123 Main St||-15m\",\"to\":\"123 Main St||+15m\",\"include_lower\":true,\"include_upper\":true,\"format\":\"yyyy-MM-dd\",\"boost\":1.0}}}";
         String actual = XContentUtil.serializeAsJSON(attributeClauses.get(0));
@@ -552,7 +685,7 @@ public class JobTest {
         Input input = new Input(json, model);
         // should throw
         Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
     }
 
@@ -597,16 +730,16 @@ public class JobTest {
         Input input = new Input(json, model);
         // should throw
         Job.buildAttributeQueries(
-            input.model(), "index", input.attributes(), FILTER, false, new AtomicInteger()
+            XContentUtil.defaultRegistry(), input.model(), "index", input.attributes(), FILTER, false, new NamedQueries(input, "index")
         );
     }
 
     /**
-     * Make the "script_fields" clause for a "date" type attribute where the "format" param is specified only in the
+     * Make the "docvalue_fields" clause for a "date" type attribute where the "format" param is specified only in the
      * input attribute.
      */
     @Test
-    public void testMakeScriptFieldsClauseTypeDateFormatInputAttributeOnly() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatInputAttributeOnly() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\"}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -658,30 +791,17 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
 
-        Map<String, Script> scriptMap = Job.buildScriptFields("index", input);
-        assertTrue(scriptMap.containsKey("field_timestamp"));
-
-        Script script = scriptMap.get("field_timestamp");
-        assertEquals("painless", script.getLang());
-
-        String expectedSource = "DateFormat df = new SimpleDateFormat(params.format); df.setTimeZone(TimeZone.getTimeZone('UTC')); return df.format(doc[params.field].value.toInstant().toEpochMilli())";
-        assertEquals(expectedSource, script.getIdOrCode());
-
-        Map<String, Object> params = script.getParams();
-
-        assertTrue(params.containsKey("format"));
-        assertEquals("yyyy-MM-dd", params.get("format"));
-
-        assertTrue(params.containsKey("field"));
-        assertEquals("field_timestamp", params.get("field"));
+        Map<String, String> docValueFields = Job.buildDocValueFields("index", input);
+        assertEquals("yyyy-MM-dd", docValueFields.get("field_timestamp"));
+        assertTrue(Job.buildScriptFields("index", input).isEmpty());
     }
 
     /**
-     * Make the "script_fields" clause for a "date" type attribute where the "format" param is specified only in the
+     * Make the "docvalue_fields" clause for a "date" type attribute where the "format" param is specified only in the
      * matcher.
      */
     @Test
-    public void testMakeScriptFieldsClauseTypeDateFormatMatcherOnly() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatMatcherOnly() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\"}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -736,30 +856,17 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
 
-        Map<String, Script> scriptMap = Job.buildScriptFields("index", input);
-        assertTrue(scriptMap.containsKey("field_timestamp"));
-
-        Script script = scriptMap.get("field_timestamp");
-        assertEquals("painless", script.getLang());
-
-        String expectedSource = "DateFormat df = new SimpleDateFormat(params.format); df.setTimeZone(TimeZone.getTimeZone('UTC')); return df.format(doc[params.field].value.toInstant().toEpochMilli())";
-        assertEquals(expectedSource, script.getIdOrCode());
-
-        Map<String, Object> params = script.getParams();
-
-        assertTrue(params.containsKey("format"));
-        assertEquals("yyyy-MM-dd", params.get("format"));
-
-        assertTrue(params.containsKey("field"));
-        assertEquals("field_timestamp", params.get("field"));
+        Map<String, String> docValueFields = Job.buildDocValueFields("index", input);
+        assertEquals("yyyy-MM-dd", docValueFields.get("field_timestamp"));
+        assertTrue(Job.buildScriptFields("index", input).isEmpty());
     }
 
     /**
-     * Make the "script_fields" clause for a "date" type attribute where the "format" param is specified only in the
+     * Make the "docvalue_fields" clause for a "date" type attribute where the "format" param is specified only in the
      * model attribute.
      */
     @Test
-    public void testMakeScriptFieldsClauseTypeDateFormatModelAttributeOnly() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatModelAttributeOnly() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\",\"params\":{\"format\":\"yyyy-MM-dd\"}}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -810,30 +917,17 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
 
-        Map<String, Script> scriptMap = Job.buildScriptFields("index", input);
-        assertTrue(scriptMap.containsKey("field_timestamp"));
-
-        Script script = scriptMap.get("field_timestamp");
-        assertEquals("painless", script.getLang());
-
-        String expectedSource = "DateFormat df = new SimpleDateFormat(params.format); df.setTimeZone(TimeZone.getTimeZone('UTC')); return df.format(doc[params.field].value.toInstant().toEpochMilli())";
-        assertEquals(expectedSource, script.getIdOrCode());
-
-        Map<String, Object> params = script.getParams();
-
-        assertTrue(params.containsKey("format"));
-        assertEquals("yyyy-MM-dd", params.get("format"));
-
-        assertTrue(params.containsKey("field"));
-        assertEquals("field_timestamp", params.get("field"));
+        Map<String, String> docValueFields = Job.buildDocValueFields("index", input);
+        assertEquals("yyyy-MM-dd", docValueFields.get("field_timestamp"));
+        assertTrue(Job.buildScriptFields("index", input).isEmpty());
     }
 
     /**
-     * Make the "script_fields" clause for a "date" type attribute where the "format" param is specified both in the
+     * Make the "docvalue_fields" clause for a "date" type attribute where the "format" param is specified both in the
      * model attribute and the matcher. The param of the model attribute should override the param of the matcher.
      */
     @Test
-    public void testMakeScriptFieldsClauseTypeDateFormatModelAttributeOverridesMatcher() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatModelAttributeOverridesMatcher() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\",\"params\":{\"format\":\"yyyy-MM-dd'T'HH:mm:ss\"}}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -887,31 +981,18 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
 
-        Map<String, Script> scriptMap = Job.buildScriptFields("index", input);
-        assertTrue(scriptMap.containsKey("field_timestamp"));
-
-        Script script = scriptMap.get("field_timestamp");
-        assertEquals("painless", script.getLang());
-
-        String expectedSource = "DateFormat df = new SimpleDateFormat(params.format); df.setTimeZone(TimeZone.getTimeZone('UTC')); return df.format(doc[params.field].value.toInstant().toEpochMilli())";
-        assertEquals(expectedSource, script.getIdOrCode());
-
-        Map<String, Object> params = script.getParams();
-
-        assertTrue(params.containsKey("format"));
-        assertEquals("yyyy-MM-dd'T'HH:mm:ss", params.get("format"));
-
-        assertTrue(params.containsKey("field"));
-        assertEquals("field_timestamp", params.get("field"));
+        Map<String, String> docValueFields = Job.buildDocValueFields("index", input);
+        assertEquals("yyyy-MM-dd'T'HH:mm:ss", docValueFields.get("field_timestamp"));
+        assertTrue(Job.buildScriptFields("index", input).isEmpty());
     }
 
     /**
-     * Make the "script_fields" clause for a "date" type attribute where the "format" param is specified both in the
+     * Make the "docvalue_fields" clause for a "date" type attribute where the "format" param is specified both in the
      * input attribute and the model attribute. The param of the input attribute should override the param of the
      * model attribute.
      */
     @Test
-    public void testMakeScriptFieldsClauseTypeDateFormatInputAttributeOverridesModelAttribute() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatInputAttributeOverridesModelAttribute() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\",\"params\":{\"format\":\"yyyy-MM-dd'T'HH:mm:ss\"}}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -966,31 +1047,18 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
 
-        Map<String, Script> scriptMap = Job.buildScriptFields("index", input);
-        assertTrue(scriptMap.containsKey("field_timestamp"));
-
-        Script script = scriptMap.get("field_timestamp");
-        assertEquals("painless", script.getLang());
-
-        String expectedSource = "DateFormat df = new SimpleDateFormat(params.format); df.setTimeZone(TimeZone.getTimeZone('UTC')); return df.format(doc[params.field].value.toInstant().toEpochMilli())";
-        assertEquals(expectedSource, script.getIdOrCode());
-
-        Map<String, Object> params = script.getParams();
-
-        assertTrue(params.containsKey("format"));
-        assertEquals("yyyy-MM-dd'T'HH:mm:ss.SSS", params.get("format"));
-
-        assertTrue(params.containsKey("field"));
-        assertEquals("field_timestamp", params.get("field"));
+        Map<String, String> docValueFields = Job.buildDocValueFields("index", input);
+        assertEquals("yyyy-MM-dd'T'HH:mm:ss.SSS", docValueFields.get("field_timestamp"));
+        assertTrue(Job.buildScriptFields("index", input).isEmpty());
     }
 
     /**
-     * Make the "script_fields" clause for a "date" type attribute where the "format" param is specified both in the
+     * Make the "docvalue_fields" clause for a "date" type attribute where the "format" param is specified both in the
      * input attribute and the model attribute, but the value of the input attribute param is null. The param of the
      * input attribute should not override the non-null param of the model attribute.
      */
     @Test
-    public void testMakeScriptFieldsClauseTypeDateFormatNullNotOverrides() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatNullNotOverrides() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\",\"params\":{\"format\":\"yyyy-MM-dd'T'HH:mm:ss\"}}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -1045,30 +1113,17 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
 
-        Map<String, Script> scriptMap = Job.buildScriptFields("index", input);
-        assertTrue(scriptMap.containsKey("field_timestamp"));
-
-        Script script = scriptMap.get("field_timestamp");
-        assertEquals("painless", script.getLang());
-
-        String expectedSource = "DateFormat df = new SimpleDateFormat(params.format); df.setTimeZone(TimeZone.getTimeZone('UTC')); return df.format(doc[params.field].value.toInstant().toEpochMilli())";
-        assertEquals(expectedSource, script.getIdOrCode());
-
-        Map<String, Object> params = script.getParams();
-
-        assertTrue(params.containsKey("format"));
-        assertEquals("yyyy-MM-dd'T'HH:mm:ss", params.get("format"));
-
-        assertTrue(params.containsKey("field"));
-        assertEquals("field_timestamp", params.get("field"));
+        Map<String, String> docValueFields = Job.buildDocValueFields("index", input);
+        assertEquals("yyyy-MM-dd'T'HH:mm:ss", docValueFields.get("field_timestamp"));
+        assertTrue(Job.buildScriptFields("index", input).isEmpty());
     }
 
     /**
-     * The "script_fields" clause for a "date" type attribute must throw an exception if the "format" param is missing
+     * The "docvalue_fields" clause for a "date" type attribute must throw an exception if the "format" param is missing
      * from the matcher, the model attribute, and the input attribute.
      */
     @Test(expected = ValidationException.class)
-    public void testMakeScriptFieldsClauseTypeDateFormatMissing() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatMissing() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\"}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -1119,14 +1174,14 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
         // should throw
-        Job.buildScriptFields("index", input).get("field_timestamp");
+        Job.buildDocValueFields("index", input).get("field_timestamp");
     }
 
     /**
-     * The "script_fields" clause for a "date" type attribute must throw an exception if the only "format" param is null.
+     * The "docvalue_fields" clause for a "date" type attribute must throw an exception if the only "format" param is null.
      */
     @Test(expected = ValidationException.class)
-    public void testMakeScriptFieldsClauseTypeDateFormatNull() throws Exception {
+    public void testMakeDocValueFieldsClauseTypeDateFormatNull() throws Exception {
         String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\"}}";
         String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
         String matchers = "\"matchers\":{\n" +
@@ -1178,7 +1233,40 @@ public class JobTest {
             "}";
         Input input = new Input(json, model);
         // should throw
-        Job.buildScriptFields("index", input).get("field_timestamp");
+        Job.buildDocValueFields("index", input).get("field_timestamp");
+    }
+
+    /**
+     * A multi-valued "date" field yields only its first value, like the script field that used to format it.
+     */
+    @Test
+    public void testFormattedFieldValueMultiValued() {
+        DocumentField field = new DocumentField("field_timestamp", Arrays.asList("1999-12-31", "2000-01-01"));
+        assertEquals(Json.ORDERED_MAPPER.getNodeFactory().textNode("1999-12-31"), Job.formattedFieldValue(field));
+    }
+
+    /**
+     * Make the "script_fields" clause for a "date" type attribute whose format can't be given to "docvalue_fields".
+     */
+    @Test
+    public void testMakeScriptFieldsClauseTypeDateFormatFallback() throws Exception {
+        String attributes = "\"attributes\":{\"attribute_ip\":{},\"attribute_timestamp\":{\"type\":\"date\"}}";
+        String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"attribute_ip\",\"attribute_timestamp\"]}}";
+        String matchers = "\"matchers\":{\"matcher_ip\":{\"clause\":{\"term\":{\"{{ field }}\":\"{{ value }}\"}}}}";
+        String indices = "\"indices\":{\"index\":{\"fields\":{" +
+            "\"field_ip\":{\"attribute\":\"attribute_ip\",\"matcher\":\"matcher_ip\"}," +
+            "\"field_timestamp\":{\"attribute\":\"attribute_timestamp\"}}}}";
+        Model model = new Model("{" + attributes + "," + resolvers + "," + matchers + "," + indices + "}");
+        String json = "{\"attributes\":{\"attribute_timestamp\":{\"values\":[\"2000-01-01 7\"],\"params\":{\"format\":\"yyyy-MM-dd u\"}}}}";
+        Input input = new Input(json, model);
+
+        assertTrue(Job.buildDocValueFields("index", input).isEmpty());
+
+        Map<String, Script> scriptMap = Job.buildScriptFields("index", input);
+        Script script = scriptMap.get("field_timestamp");
+        assertEquals("painless", script.getLang());
+        assertEquals("yyyy-MM-dd u", script.getParams().get("format"));
+        assertEquals("field_timestamp", script.getParams().get("field"));
     }
 
     /**
@@ -1256,4 +1344,16 @@ public class JobTest {
         assertEquals(Job.calculateCompositeIdentityConfidenceScore(Arrays.asList(0.75, 0.85)), 0.94444444444, 0.0000000001);
     }
 
+    /**
+     * The composite identity confidence score of an array of scores, where missing scores are NaN.
+     */
+    @Test
+    public void testCalculateCompositeIdentityConfidenceScoreArray() {
+        assertEquals(Job.calculateCompositeIdentityConfidenceScore(new double[]{0.55, 0.65, 0.75}), 0.87195121951, 0.0000000001);
+        assertEquals(Job.calculateCompositeIdentityConfidenceScore(new double[]{Double.NaN, 0.55, 0.65, Double.NaN, 0.75}), 0.87195121951, 0.0000000001);
+        assertEquals(Job.calculateCompositeIdentityConfidenceScore(new double[]{0.75, 1.00, 0.00}), 0.50000000000, 0.0000000001);
+        assertTrue(Double.isNaN(Job.calculateCompositeIdentityConfidenceScore(new double[]{})));
+        assertTrue(Double.isNaN(Job.calculateCompositeIdentityConfidenceScore(new double[]{Double.NaN, Double.NaN})));
+    }
+
 }
@@ -0,0 +1,60 @@
+package io.zentity.resolution;
+
+import io.zentity.common.XContentUtil;
+import io.zentity.model.ClauseTemplate;
+import io.zentity.model.Matcher;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a single matcher clause for a value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatcherClauseBenchmark {
+
+    private ClauseTemplate template;
+
+    @Setup
+    public void setup() throws Exception {
+        Matcher matcher = new Matcher("matcher_name", "{\"clause\":{\"match\":{\"{{ field }}\":{\"query\":\"{{ value }}\",\"fuzziness\":\"{{ params.fuzziness }}\"}}}}");
+        template = matcher.bind("field_name", Collections.singletonMap("fuzziness", "AUTO"));
+    }
+
+    /**
+     * Builds a new registry for each clause.
+     */
+    @Benchmark
+    public QueryBuilder registryPerClause() throws Exception {
+        SearchModule searchModule = new SearchModule(Settings.EMPTY, false, Collections.emptyList());
+        NamedXContentRegistry registry = new NamedXContentRegistry(searchModule.getNamedXContents());
+        return Job.buildMatcherClause(registry, template, "Alice Jones");
+    }
+
+    /**
+     * Reuses one registry for all clauses.
+     */
+    @Benchmark
+    public QueryBuilder sharedRegistry() throws Exception {
+        return Job.buildMatcherClause(XContentUtil.defaultRegistry(), template, "Alice Jones");
+    }
+}
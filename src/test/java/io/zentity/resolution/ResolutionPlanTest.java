@@ -0,0 +1,113 @@
+package io.zentity.resolution;
+
+import io.zentity.model.Model;
+import io.zentity.resolution.input.Attribute;
+import io.zentity.resolution.input.Input;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResolutionPlanTest {
+
+    private static Model model() throws Exception {
+        String attributes = "\"attributes\":{\"name\":{},\"phone\":{},\"email\":{},\"street\":{},\"id\":{}}";
+        String resolvers = "\"resolvers\":{" +
+            "\"a\":{\"attributes\":[\"name\",\"phone\"],\"weight\":1}," +
+            "\"b\":{\"attributes\":[\"name\",\"email\"]}," +
+            "\"c\":{\"attributes\":[\"street\"]}," +
+            "\"d\":{\"attributes\":[\"id\"],\"weight\":1}}";
+        String matchers = "\"matchers\":{\"x\":{\"clause\":{\"term\":{\"{{field}}\":\"{{value}}\"}}}}";
+        String indices = "\"indices\":{\"index\":{\"fields\":{" +
+            "\"name\":{\"attribute\":\"name\",\"matcher\":\"x\"}," +
+            "\"phone\":{\"attribute\":\"phone\",\"matcher\":\"x\"}," +
+            "\"email\":{\"attribute\":\"email\",\"matcher\":\"x\"}," +
+            "\"street\":{\"attribute\":\"street\"}," +
+            "\"id\":{\"attribute\":\"id\",\"matcher\":\"x\"}}}}";
+        return new Model("{" + attributes + "," + resolvers + "," + matchers + "," + indices + "}");
+    }
+
+    @Test
+    public void testResolverNames() throws Exception {
+        // The index field of "street" has no matcher, so resolver "c" can never query the index.
+        ResolutionPlan plan = new ResolutionPlan(model(), "index");
+        assertEquals(Arrays.asList("a", "b", "d"), plan.resolverNames());
+    }
+
+    @Test
+    public void testBind() throws Exception {
+        Model model = model();
+        ResolutionPlan plan = new ResolutionPlan(model, "index");
+        Input input = new Input("{\"attributes\":{\"name\":[\"Alice\"],\"phone\":[\"555-123-4567\"],\"email\":[\"alice@example.net\"],\"id\":[\"1234\"]}}", model);
+        ResolutionPlan.Resolvers resolvers = plan.bind(input.attributes());
+        assertEquals(Arrays.asList("a", "b", "d"), resolvers.names());
+
+        // The weight levels are in descending order of weight.
+        assertEquals(Arrays.asList(Arrays.asList("a", "d"), Collections.singletonList("b")), resolvers.levels());
+        List<String> level0 = Arrays.asList("a", "d");
+        FilterTree expected = Job.makeResolversFilterTree(Job.sortResolverAttributes(model, level0, Job.countAttributesAcrossResolvers(model, level0)));
+        assertEquals(expected, resolvers.levelFilterTree(0));
+        List<String> all = Arrays.asList("a", "b", "d");
+        expected = Job.makeResolversFilterTree(Job.sortResolverAttributes(model, all, Job.countAttributesAcrossResolvers(model, all)));
+        assertEquals(expected, resolvers.filterTree());
+
+        // The tree of a resolver by itself follows its attributes in lexicographic order.
+        FilterTree resolverTree = new FilterTree();
+        resolverTree.put("name", new FilterTree());
+        resolverTree.get("name").put("phone", new FilterTree());
+        assertEquals(resolverTree, resolvers.resolverFilterTree("a"));
+        assertNotNull(resolvers.resolverNotExistsClause("a"));
+    }
+
+    @Test
+    public void testBindAttributesWithoutValues() throws Exception {
+        Model model = model();
+        ResolutionPlan plan = new ResolutionPlan(model, "index");
+        Input input = new Input("{\"attributes\":{\"name\":[\"Alice\"],\"phone\":[\"555-123-4567\"]}}", model);
+        Map<String, Attribute> attributes = new TreeMap<>(input.attributes());
+        attributes.put("email", new Attribute("email", "string"));
+        ResolutionPlan.Resolvers resolvers = plan.bind(attributes);
+        assertEquals(Collections.singletonList("a"), resolvers.names());
+        assertEquals(Collections.singletonList(Collections.singletonList("a")), resolvers.levels());
+
+        assertTrue(plan.bind(Collections.emptyMap()).isEmpty());
+        assertTrue(plan.bind(Collections.emptyMap()).levels().isEmpty());
+    }
+
+    @Test
+    public void testBindReusesSelection() throws Exception {
+        Model model = model();
+        ResolutionPlan plan = new ResolutionPlan(model, "index");
+        Input input = new Input("{\"attributes\":{\"name\":[\"Alice\"],\"phone\":[\"555-123-4567\"]}}", model);
+        Input more = new Input("{\"attributes\":{\"name\":[\"Alice\",\"Alicia\"],\"phone\":[\"555-123-4567\"]}}", model);
+        assertSame(plan.bind(input.attributes()), plan.bind(more.attributes()));
+    }
+
+    @Test
+    public void testOf() throws Exception {
+        Model model = model();
+        ResolutionPlan plan = ResolutionPlan.of(model, "index");
+        assertSame(plan, ResolutionPlan.of(model, "index"));
+
+        // Views of the model share the plans of their scope.
+        Model view = model.excludeResolvers(Set.of("b"));
+        ResolutionPlan viewPlan = ResolutionPlan.of(view, "index");
+        assertNotSame(plan, viewPlan);
+        assertEquals(Arrays.asList("a", "d"), viewPlan.resolverNames());
+        assertSame(viewPlan, ResolutionPlan.of(model.excludeResolvers(Set.of("b")), "index"));
+        assertSame(plan, ResolutionPlan.of(model.includeIndices(Set.of("index")), "index"));
+
+        // Another model has its own plans, even if it is identical.
+        assertNotSame(plan, ResolutionPlan.of(model(), "index"));
+    }
+}
@@ -0,0 +1,73 @@
+package io.zentity.resolution;
+
+import io.zentity.common.XContentUtil;
+import io.zentity.model.Model;
+import io.zentity.resolution.input.Input;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+public class ResolverClausesTest {
+
+    private static Model model() throws Exception {
+        String attributes = "\"attributes\":{\"name\":{},\"phone\":{},\"email\":{}}";
+        String resolvers = "\"resolvers\":{\"a\":{\"attributes\":[\"name\",\"phone\"],\"weight\":1},\"b\":{\"attributes\":[\"name\",\"email\"]}}";
+        String matchers = "\"matchers\":{\"x\":{\"clause\":{\"term\":{\"{{field}}\":\"{{value}}\"}}}}";
+        String indices = "\"indices\":{\"index\":{\"fields\":{\"name\":{\"attribute\":\"name\",\"matcher\":\"x\"},\"phone\":{\"attribute\":\"phone\",\"matcher\":\"x\"},\"email\":{\"attribute\":\"email\",\"matcher\":\"x\"}}}}";
+        return new Model("{" + attributes + "," + resolvers + "," + matchers + "," + indices + "}");
+    }
+
+    private static FilterTree filterTree(Model model, List<String> resolvers) {
+        return Job.makeResolversFilterTree(Job.sortResolverAttributes(model, resolvers, Job.countAttributesAcrossResolvers(model, resolvers)));
+    }
+
+    @Test
+    public void testResolversQueryIsMemoized() throws Exception {
+        Model model = model();
+        Input input = new Input("{\"attributes\":{\"name\":[\"Alice\",\"Alicia\"],\"phone\":[\"555-123-4567\"],\"email\":[\"alice@example.net\"]}}", model);
+        NamedQueries namedQueries = new NamedQueries(input, "index");
+        ResolverClauses clauses = new ResolverClauses(
+            XContentUtil.defaultRegistry(), model, "index", input.attributes(), Collections.emptyMap(), true, namedQueries
+        );
+        FilterTree tree = filterTree(model, Arrays.asList("a", "b"));
+        QueryBuilder query = clauses.resolversQuery(tree);
+        assertNotNull(query);
+        assertEquals(4, namedQueries.size());
+        assertSame(query, clauses.resolversQuery(tree));
+
+        // The clauses of the attributes are shared with the trees of the resolvers by themselves.
+        clauses.resolversQuery(filterTree(model, Collections.singletonList("a")));
+        clauses.resolversQuery(filterTree(model, Collections.singletonList("b")));
+        assertEquals(4, namedQueries.size());
+
+        // The memoized clauses are the same as the clauses built from scratch.
+        String expected = XContentUtil.serializeAsJSON(Job.buildResolversQuery(
+            XContentUtil.defaultRegistry(), model, "index", tree, input.attributes(), true, new NamedQueries(input, "index")
+        ));
+        assertEquals(expected, XContentUtil.serializeAsJSON(query));
+    }
+
+    @Test
+    public void testIncrementalResolversQueryIsMemoized() throws Exception {
+        Model model = model();
+        Input known = new Input("{\"attributes\":{\"name\":[\"Alice\",\"Alicia\"],\"phone\":[\"555-123-4567\"],\"email\":[\"alice@example.net\"]}}", model);
+        Input newPhone = new Input("{\"attributes\":{\"phone\":[\"555-123-4567\"]}}", model);
+        ResolverClauses clauses = new ResolverClauses(
+            XContentUtil.defaultRegistry(), model, "index", known.attributes(), newPhone.attributes(), false, new NamedQueries(known, "index")
+        );
+        FilterTree tree = filterTree(model, Arrays.asList("a", "b"));
+        QueryBuilder query = clauses.incrementalResolversQuery(tree);
+        assertNotNull(query);
+        assertSame(query, clauses.incrementalResolversQuery(tree));
+
+        String expected = "{\"bool\":{\"filter\":[{\"terms\":{\"name\":[\"Alice\",\"Alicia\"],\"boost\":1.0}},{\"term\":{\"phone\":{\"value\":\"555-123-4567\",\"boost\":1.0}}}],\"adjust_pure_negative\":true,\"boost\":1.0}}";
+        assertEquals(expected, XContentUtil.serializeAsJSON(query));
+    }
+}
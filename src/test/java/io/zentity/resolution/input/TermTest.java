@@ -50,6 +50,34 @@ public class TermTest {
         Assert.assertFalse(term.isDate("yyyyMMdd"));
     }
 
+    @Test
+    public void testTypeDateMultipleFormats() throws Exception {
+        Term term = new Term("2019-12-31 12:45:00");
+        Assert.assertFalse(term.isDate("yyyyMMdd"));
+        Assert.assertTrue(term.isDate("yyyy-MM-dd HH:mm:ss"));
+        Assert.assertFalse(term.isDate("yyyy-MM-dd"));
+    }
+
+    @Test
+    public void testInvalidTypeDateNonexistent() throws Exception {
+        Assert.assertFalse(new Term("2019-02-29").isDate("yyyy-MM-dd"));
+        Assert.assertTrue(new Term("2020-02-29").isDate("yyyy-MM-dd"));
+    }
+
+    @Test
+    public void testValidTypeDateSimpleDateFormatLetters() throws Exception {
+        // "u" is a day of the week and "S" is a number of milliseconds of any length, as in SimpleDateFormat.
+        Assert.assertTrue(new Term("2019-12-31 2").isDate("yyyy-MM-dd u"));
+        Assert.assertTrue(new Term("2019-12-31 12:45:00.123").isDate("yyyy-MM-dd HH:mm:ss.S"));
+        Assert.assertFalse(new Term("2019-12-31 12:45:00.123x").isDate("yyyy-MM-dd HH:mm:ss.S"));
+    }
+
+    @Test
+    public void testInvalidTypeDateTrailingCharacters() throws Exception {
+        Assert.assertFalse(new Term("2019-12-31 12:45:00").isDate("yyyy-MM-dd"));
+        Assert.assertFalse(new Term("2019-12-31 2 extra").isDate("yyyy-MM-dd u"));
+    }
+
     @Test
     public void testValidTypeNumberIntegerLongNegative() throws Exception {
         Term term = new Term("-922337203685477");
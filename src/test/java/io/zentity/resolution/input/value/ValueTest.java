@@ -0,0 +1,121 @@
+package io.zentity.resolution.input.value;
+
+import com.fasterxml.jackson.databind.node.BigIntegerNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.FloatNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.zentity.model.ValidationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ValueTest {
+
+    @Test
+    public void testNumberEquals() throws Exception {
+        Value a = new NumberValue(IntNode.valueOf(1));
+        Value b = new NumberValue(LongNode.valueOf(1L));
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals("1", a.serialized());
+        Assert.assertNotEquals(a, new NumberValue(IntNode.valueOf(2)));
+        Assert.assertNotEquals(a, new NumberValue(DoubleNode.valueOf(1.0)));
+    }
+
+    @Test
+    public void testNumberEqualsDouble() throws Exception {
+        Value a = new NumberValue(DoubleNode.valueOf(1.5));
+        Value b = new NumberValue(FloatNode.valueOf(1.5f));
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals("1.5", a.serialized());
+    }
+
+    @Test
+    public void testNumberEqualsBigInteger() throws Exception {
+        BigInteger big = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+        Value a = new NumberValue(BigIntegerNode.valueOf(big));
+        Value b = new NumberValue(BigIntegerNode.valueOf(new BigInteger(big.toString())));
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals(big.toString(), a.serialized());
+        Assert.assertNotEquals(a, new NumberValue(LongNode.valueOf(Long.MAX_VALUE)));
+
+        // Integers that fit in a long are the same value whichever node holds them.
+        Assert.assertEquals(new NumberValue(BigIntegerNode.valueOf(BigInteger.TEN)), new NumberValue(IntNode.valueOf(10)));
+    }
+
+    @Test
+    public void testBooleanEquals() throws Exception {
+        Assert.assertEquals(new BooleanValue(BooleanNode.TRUE), new BooleanValue(BooleanNode.valueOf(true)));
+        Assert.assertNotEquals(new BooleanValue(BooleanNode.TRUE), new BooleanValue(BooleanNode.FALSE));
+    }
+
+    @Test
+    public void testStringEquals() throws Exception {
+        Value a = new StringValue(new TextNode("abc"));
+        Value b = new StringValue(new TextNode("abc"));
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, new StringValue(new TextNode("abd")));
+    }
+
+    @Test
+    public void testEqualsRequiresSameType() throws Exception {
+        Value string = new StringValue(new TextNode("2020-01-01"));
+        Value date = new DateValue(new TextNode("2020-01-01"));
+        Assert.assertNotEquals(string, date);
+        Assert.assertNotEquals(date, string);
+        Assert.assertNotEquals(new StringValue(new TextNode("1")), new NumberValue(IntNode.valueOf(1)));
+        Assert.assertNotEquals(new StringValue(new TextNode("1")), null);
+    }
+
+    @Test
+    public void testNullEquals() throws Exception {
+        Assert.assertEquals(new StringValue(NullNode.getInstance()), new StringValue(NullNode.getInstance()));
+        Assert.assertNotEquals(new StringValue(NullNode.getInstance()), new StringValue(new TextNode("null")));
+        Assert.assertNotEquals(new StringValue(new TextNode("null")), new StringValue(NullNode.getInstance()));
+        Assert.assertEquals(new NumberValue(NullNode.getInstance()), new NumberValue(NullNode.getInstance()));
+        Assert.assertNotEquals(new NumberValue(NullNode.getInstance()), new NumberValue(IntNode.valueOf(0)));
+    }
+
+    @Test
+    public void testHashAndTreeSetsAgree() throws Exception {
+        Value[] values = {
+            new NumberValue(IntNode.valueOf(10)),
+            new NumberValue(LongNode.valueOf(10L)),
+            new NumberValue(IntNode.valueOf(2)),
+            new NumberValue(DoubleNode.valueOf(2.0)),
+            new NumberValue(NullNode.getInstance())
+        };
+        Set<Value> hashSet = new HashSet<>(Arrays.asList(values));
+        Set<Value> treeSet = new TreeSet<>(Arrays.asList(values));
+        Assert.assertEquals(4, hashSet.size());
+        Assert.assertEquals(4, treeSet.size());
+        Assert.assertEquals(treeSet, hashSet);
+    }
+
+    @Test
+    public void testCompareToKeepsSerializedOrder() throws Exception {
+        Set<Value> values = new TreeSet<>(Arrays.asList(
+            new StringValue(new TextNode("b")),
+            new StringValue(new TextNode("a")),
+            new StringValue(new TextNode("c"))
+        ));
+        Assert.assertEquals("[a, b, c]", values.toString());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testInvalidNumber() throws Exception {
+        new NumberValue(new TextNode("1"));
+    }
+}
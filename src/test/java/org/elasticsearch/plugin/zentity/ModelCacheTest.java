@@ -0,0 +1,132 @@
+package org.elasticsearch.plugin.zentity;
+
+import io.zentity.model.Model;
+import io.zentity.model.ModelTest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.plugin.zentity.exceptions.NotFoundException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ModelCacheTest {
+    private static final TimeValue REFRESH_INTERVAL = TimeValue.timeValueSeconds(5);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private ModelCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new ModelCache(".zentity-models", 10, TimeValue.timeValueHours(1), REFRESH_INTERVAL, nanoTime::get);
+    }
+
+    private static GetResponse response(long seqNo, long primaryTerm) {
+        GetResult result = new GetResult(
+            ".zentity-models", "doc", "person", seqNo, primaryTerm, 1, true,
+            new BytesArray(ModelTest.VALID_OBJECT), Collections.emptyMap(), Collections.emptyMap()
+        );
+        return new GetResponse(result);
+    }
+
+    private Supplier<CompletableFuture<GetResponse>> fetcher(long seqNo, long primaryTerm) {
+        return () -> {
+            fetches.incrementAndGet();
+            return CompletableFuture.completedFuture(response(seqNo, primaryTerm));
+        };
+    }
+
+    private Supplier<CompletableFuture<GetResponse>> missingFetcher() {
+        return () -> {
+            fetches.incrementAndGet();
+            GetResult result = new GetResult(
+                ".zentity-models", "doc", "person", -2, 0, -1, false,
+                null, Collections.emptyMap(), Collections.emptyMap()
+            );
+            return CompletableFuture.completedFuture(new GetResponse(result));
+        };
+    }
+
+    @Test
+    public void testCachedWithinRefreshInterval() {
+        Model first = cache.get("person", fetcher(0, 1)).join();
+        nanoTime.addAndGet(REFRESH_INTERVAL.nanos() - 1);
+        Model second = cache.get("person", fetcher(0, 1)).join();
+        assertSame(first, second);
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void testRevalidatedAfterRefreshInterval() {
+        Model first = cache.get("person", fetcher(0, 1)).join();
+        nanoTime.addAndGet(REFRESH_INTERVAL.nanos());
+        Model second = cache.get("person", fetcher(0, 1)).join();
+        assertSame(first, second);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void testReloadedWhenVersionChanges() {
+        Model first = cache.get("person", fetcher(0, 1)).join();
+        nanoTime.addAndGet(REFRESH_INTERVAL.nanos());
+        Model second = cache.get("person", fetcher(1, 1)).join();
+        assertNotSame(first, second);
+        Model third = cache.get("person", fetcher(1, 1)).join();
+        assertSame(second, third);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void testInvalidate() {
+        Model first = cache.get("person", fetcher(0, 1)).join();
+        cache.invalidate("person");
+        Model second = cache.get("person", fetcher(0, 1)).join();
+        assertNotSame(first, second);
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void testConcurrentLoadsShareOneFetch() {
+        CompletableFuture<GetResponse> pending = new CompletableFuture<>();
+        Supplier<CompletableFuture<GetResponse>> slowFetcher = () -> {
+            fetches.incrementAndGet();
+            return pending;
+        };
+        CompletableFuture<Model> first = cache.get("person", slowFetcher);
+        CompletableFuture<Model> second = cache.get("person", slowFetcher);
+        pending.complete(response(0, 1));
+        assertSame(first.join(), second.join());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void testNotFound() {
+        try {
+            cache.get("person", missingFetcher()).join();
+            fail("failure expected");
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof NotFoundException);
+        }
+        try {
+            cache.get("person", missingFetcher()).join();
+            fail("failure expected");
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof NotFoundException);
+        }
+        assertEquals(2, fetches.get());
+    }
+}
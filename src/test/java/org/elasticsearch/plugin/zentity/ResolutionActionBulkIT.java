@@ -8,11 +8,14 @@ import joptsimple.internal.Strings;
 import org.apache.http.Consts;
 import org.apache.http.entity.ContentType;
 import org.apache.http.nio.entity.NStringEntity;
+import org.apache.http.util.EntityUtils;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -190,4 +193,58 @@ public class ResolutionActionBulkIT extends AbstractActionITCase {
             destroyTestResources(testResourceSet);
         }
     }
+
+    @Test
+    public void testBulkResolutionStream() throws Exception {
+        int testResourceSet = TEST_RESOURCES_A;
+        prepareTestResources(testResourceSet);
+        try {
+            String endpoint = "_zentity/resolution/zentity_test_entity_a/_bulk";
+            Request req = new Request("POST", endpoint);
+            String[] reqBodyLines = new String[]{
+                "{\"_source\": false}",
+                TEST_PAYLOAD_JOB_TERMS_JSON,
+                "malformed json",
+                TEST_PAYLOAD_JOB_TERMS_JSON,
+                "{\"_explanation\": true}",
+                TEST_PAYLOAD_JOB_EXPLANATION_JSON
+            };
+            String reqBody = Strings.join(reqBodyLines, "\n");
+            req.setEntity(new NStringEntity(reqBody, NDJSON_TYPE));
+            req.addParameter("stream", "true");
+
+            Response response = client.performRequest(req);
+            assertEquals(response.getStatusLine().getStatusCode(), 200);
+            assertTrue(response.getEntity().getContentType().getValue().startsWith("application/x-ndjson"));
+
+            String[] lines = EntityUtils.toString(response.getEntity()).split("\\n");
+            assertEquals(4, lines.length);
+
+            // the items are written in the order in which the jobs finish
+            Set<Integer> seqs = new TreeSet<>();
+            for (int i = 0; i < 3; i++) {
+                JsonNode item = Json.MAPPER.readTree(lines[i]);
+                assertTrue(item.get("_seq").isInt());
+                seqs.add(item.get("_seq").asInt());
+                assertTrue(item.get("took").isNumber());
+                assertTrue(item.get("hits").isObject());
+                if (item.get("_seq").asInt() == 1) {
+                    assertTrue(item.get("error").isObject());
+                } else {
+                    assertFalse(item.has("error"));
+                    assertTrue(item.get("hits").get("total").asInt() > 0);
+                }
+            }
+            assertEquals(Set.of(0, 1, 2), seqs);
+
+            // the last line summarizes the request
+            JsonNode summary = Json.MAPPER.readTree(lines[3]);
+            assertFalse(summary.has("_seq"));
+            assertTrue(summary.get("took").isNumber());
+            assertTrue(summary.get("errors").booleanValue());
+            assertEquals(3, summary.get("items").asInt());
+        } finally {
+            destroyTestResources(testResourceSet);
+        }
+    }
 }
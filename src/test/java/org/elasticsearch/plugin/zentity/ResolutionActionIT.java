@@ -550,6 +550,86 @@ public class ResolutionActionIT extends AbstractActionITCase {
         }
     }
 
+    @Test
+    public void testJobMaxConcurrentQueriesPerHop() throws Exception {
+        int testResourceSet = TEST_RESOURCES_A;
+        prepareTestResources(testResourceSet);
+        try {
+            String endpoint = "_zentity/resolution/zentity_test_entity_a";
+            Request postResolution = new Request("POST", endpoint);
+            postResolution.addParameter("_explanation", "true");
+            postResolution.setEntity(TEST_PAYLOAD_JOB_ATTRIBUTES);
+            Response response = client.performRequest(postResolution);
+            JsonNode json = Json.ORDERED_MAPPER.readTree(response.getEntity().getContent());
+
+            Request postResolutionConcurrent = new Request("POST", endpoint);
+            postResolutionConcurrent.addParameter("_explanation", "true");
+            postResolutionConcurrent.addParameter("max_concurrent_queries_per_hop", "4");
+            postResolutionConcurrent.setEntity(TEST_PAYLOAD_JOB_ATTRIBUTES);
+            Response responseConcurrent = client.performRequest(postResolutionConcurrent);
+            JsonNode jsonConcurrent = Json.ORDERED_MAPPER.readTree(responseConcurrent.getEntity().getContent());
+
+            // The hits, including their "_hop" and "_query" numbers, must not depend on the order the searches complete.
+            assertEquals(6, jsonConcurrent.get("hits").get("total").asInt());
+            assertEquals(json.get("hits"), jsonConcurrent.get("hits"));
+        } finally {
+            destroyTestResources(testResourceSet);
+        }
+    }
+
+    @Test
+    public void testJobSeenDocsExclusionClient() throws Exception {
+        int testResourceSet = TEST_RESOURCES_A;
+        prepareTestResources(testResourceSet);
+        try {
+            String endpoint = "_zentity/resolution/zentity_test_entity_a";
+            Request postResolution = new Request("POST", endpoint);
+            postResolution.addParameter("_explanation", "true");
+            postResolution.setEntity(TEST_PAYLOAD_JOB_ATTRIBUTES);
+            Response response = client.performRequest(postResolution);
+            JsonNode json = Json.ORDERED_MAPPER.readTree(response.getEntity().getContent());
+
+            Request postResolutionClient = new Request("POST", endpoint);
+            postResolutionClient.addParameter("_explanation", "true");
+            postResolutionClient.addParameter("seen_docs_exclusion", "client");
+            postResolutionClient.setEntity(TEST_PAYLOAD_JOB_ATTRIBUTES);
+            Response responseClient = client.performRequest(postResolutionClient);
+            JsonNode jsonClient = Json.ORDERED_MAPPER.readTree(responseClient.getEntity().getContent());
+
+            // Skipping the fetched documents on the client must find the same documents in the same hops.
+            assertEquals(6, jsonClient.get("hits").get("total").asInt());
+            assertEquals(getActualIdHits(json), getActualIdHits(jsonClient));
+        } finally {
+            destroyTestResources(testResourceSet);
+        }
+    }
+
+    @Test
+    public void testJobPaginate() throws Exception {
+        int testResourceSet = TEST_RESOURCES_A;
+        prepareTestResources(testResourceSet);
+        try {
+            String endpoint = "_zentity/resolution/zentity_test_entity_a";
+            Request postResolution = new Request("POST", endpoint);
+            postResolution.setEntity(TEST_PAYLOAD_JOB_ATTRIBUTES);
+            Response response = client.performRequest(postResolution);
+            JsonNode json = Json.ORDERED_MAPPER.readTree(response.getEntity().getContent());
+
+            // Pages smaller than the number of matching documents must not truncate the results of a hop.
+            Request postResolutionPaginated = new Request("POST", endpoint);
+            postResolutionPaginated.addParameter("paginate", "true");
+            postResolutionPaginated.addParameter("page_size", "1");
+            postResolutionPaginated.addParameter("max_docs_per_query", "1");
+            postResolutionPaginated.setEntity(TEST_PAYLOAD_JOB_ATTRIBUTES);
+            Response responsePaginated = client.performRequest(postResolutionPaginated);
+            JsonNode jsonPaginated = Json.ORDERED_MAPPER.readTree(responsePaginated.getEntity().getContent());
+            assertEquals(6, jsonPaginated.get("hits").get("total").asInt());
+            assertEquals(getActualIdHits(json), getActualIdHits(jsonPaginated));
+        } finally {
+            destroyTestResources(testResourceSet);
+        }
+    }
+
     @Test
     public void testJobTerms() throws Exception {
         int testResourceSet = TEST_RESOURCES_A;
@@ -9,6 +9,8 @@ import org.junit.Test;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static junit.framework.TestCase.assertTrue;
 
@@ -33,4 +35,19 @@ public class ZentityPluginIT extends AbstractITCase {
             assertTrue("Plugin was not found", pluginFound);
         }
     }
+
+    @Test
+    public void testThreadPoolsAreRegistered() throws Exception {
+        Request request = new Request("GET", "_cat/thread_pool/zentity_*");
+        request.addParameter("format", "json");
+        request.addParameter("h", "name");
+        Response response = client.performRequest(request);
+        JsonNode json = Json.MAPPER.readTree(response.getEntity().getContent());
+        Set<String> names = new TreeSet<>();
+        for (JsonNode threadPool : json) {
+            names.add(threadPool.get("name").textValue());
+        }
+        assertTrue("Thread pool was not found", names.contains(ZentityPlugin.RESOLUTION_THREAD_POOL_NAME));
+        assertTrue("Thread pool was not found", names.contains(ZentityPlugin.BULK_RESOLUTION_THREAD_POOL_NAME));
+    }
 }
@@ -0,0 +1,64 @@
+package org.elasticsearch.plugin.zentity;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.threadpool.ExecutorBuilder;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class ZentityPluginTest {
+
+    private static ThreadPool threadPool(Settings settings) throws Exception {
+        Path home = Files.createTempDirectory("zentity");
+        Settings nodeSettings = Settings.builder()
+            .put(settings)
+            .put("node.name", "zentity")
+            .put("path.home", home.toString())
+            .build();
+        ZentityPlugin plugin = new ZentityPlugin(nodeSettings, home.resolve("config"));
+        return new ThreadPool(nodeSettings, plugin.getExecutorBuilders(nodeSettings).toArray(new ExecutorBuilder<?>[0]));
+    }
+
+    @Test
+    public void testThreadPoolSettings() throws Exception {
+        Settings settings = Settings.builder()
+            .put("thread_pool.zentity_resolution.size", 3)
+            .put("thread_pool.zentity_resolution.queue_size", 30)
+            .put("thread_pool.zentity_bulk_resolution.size", 2)
+            .put("thread_pool.zentity_bulk_resolution.queue_size", 20)
+            .build();
+        ThreadPool threadPool = threadPool(settings);
+        try {
+            ThreadPool.Info info = threadPool.info(ZentityPlugin.RESOLUTION_THREAD_POOL_NAME);
+            assertEquals(3, info.getMax());
+            assertEquals(30, info.getQueueSize().singles());
+            ThreadPool.Info bulkInfo = threadPool.info(ZentityPlugin.BULK_RESOLUTION_THREAD_POOL_NAME);
+            assertEquals(2, bulkInfo.getMax());
+            assertEquals(20, bulkInfo.getQueueSize().singles());
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testThreadPoolDefaults() throws Exception {
+        int processors = EsExecutors.allocatedProcessors(Settings.EMPTY);
+        ThreadPool threadPool = threadPool(Settings.EMPTY);
+        try {
+            ThreadPool.Info info = threadPool.info(ZentityPlugin.RESOLUTION_THREAD_POOL_NAME);
+            assertEquals(processors, info.getMax());
+            assertEquals(1_000, info.getQueueSize().singles());
+            ThreadPool.Info bulkInfo = threadPool.info(ZentityPlugin.BULK_RESOLUTION_THREAD_POOL_NAME);
+            assertEquals((processors + 1) / 2, bulkInfo.getMax());
+            assertEquals(10_000, bulkInfo.getQueueSize().singles());
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+}